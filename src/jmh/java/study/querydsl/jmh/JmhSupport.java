@@ -0,0 +1,51 @@
+package study.querydsl.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+
+// DB 를 쓰는 벤치마크용 스프링 컨텍스트 + 데이터 / 테스트의 BenchmarkSupport.seed 와 같은 데이터
+final class JmhSupport {
+
+	static final int TEAM_COUNT = 10;
+	private static final int BATCH_SIZE = 10_000;
+
+	private JmhSupport() {
+	}
+
+	static ConfigurableApplicationContext start(int memberCount) {
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+				.web(WebApplicationType.NONE)
+				.run( // application.yml 보다 우선하도록 커맨드라인 인자로 넘긴다
+						"--spring.profiles.active=jmh", // local 프로필의 초기 데이터(InitMember)는 안넣는다
+						"--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+						"--spring.jpa.properties.hibernate.generate_statistics=false",
+						"--member.sql-trace.enabled=false",
+						"--logging.level.root=warn",
+						"--logging.level.org.hibernate.SQL=warn");
+		seed(context.getBean(JdbcTemplate.class), memberCount);
+		return context;
+	}
+
+	// JDBC batch 로 바로 넣는다 / memberN 의 나이는 N % 100, 팀은 team(N % 10)
+	private static void seed(JdbcTemplate jdbcTemplate, int memberCount) {
+		List<Object[]> teams = new ArrayList<>();
+		for (int i = 0; i < TEAM_COUNT; i++) {
+			teams.add(new Object[]{(long) i + 1, "team" + i});
+		}
+		jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teams);
+
+		List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < memberCount; i++) {
+			batch.add(new Object[]{(long) i + 1, "member" + i, i % 100, (long) (i % TEAM_COUNT) + 1});
+			if (batch.size() == BATCH_SIZE || i == memberCount - 1) {
+				jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", batch);
+				batch.clear();
+			}
+		}
+	}
+}
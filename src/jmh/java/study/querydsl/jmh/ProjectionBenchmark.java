@@ -0,0 +1,63 @@
+package study.querydsl.jmh;
+
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+
+// DB 에서 읽은 row 하나(Object[])를 DTO 로 바꾸는 비용만 / 쿼리를 돌리면 하이버네이트가 row 마다 newInstance 를 부른다.
+// bean 은 setter, fields 는 필드, constructor 는 생성자를 리플렉션으로 찾아 쓰고 @QueryProjection 은 생성자를 바로 부른다.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+	private final Object[] row = {"member1", 10};
+
+	private final FactoryExpression<MemberDto> bean = Projections.bean(MemberDto.class, member.username, member.age);
+	private final FactoryExpression<MemberDto> fields = Projections.fields(MemberDto.class, member.username, member.age);
+	private final FactoryExpression<MemberDto> constructor = Projections.constructor(MemberDto.class, member.username, member.age);
+	private final FactoryExpression<MemberDto> queryProjection = new QMemberDto(member.username, member.age);
+	private final FactoryExpression<Tuple> tuple = Projections.tuple(member.username, member.age);
+
+	@Benchmark
+	public MemberDto bean() {
+		return bean.newInstance(row);
+	}
+
+	@Benchmark
+	public MemberDto fields() {
+		return fields.newInstance(row);
+	}
+
+	@Benchmark
+	public MemberDto constructor() {
+		return constructor.newInstance(row);
+	}
+
+	@Benchmark
+	public MemberDto queryProjection() {
+		return queryProjection.newInstance(row);
+	}
+
+	@Benchmark
+	public Tuple tuple() {
+		return tuple.newInstance(row);
+	}
+}
@@ -0,0 +1,95 @@
+package study.querydsl.jmh;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberSearchPredicates.searchCondition;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+// DB 없이 JPAQuery 를 만드는 비용과 JPQL 로 직렬화하는 비용
+// where 파라미터(MemberSearchPredicates) 방식과 BooleanBuilder 방식 비교
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryBuildingBenchmark {
+
+	private final MemberSearchCondition condition = new MemberSearchCondition();
+
+	{
+		condition.setUsername("member1");
+		condition.setTeamName("teamA");
+		condition.setAgeGoe(10);
+	}
+
+	@Benchmark
+	public JPAQuery<MemberTeamDto> whereParameters() {
+		return new JPAQuery<Void>()
+				.select(memberTeamDto())
+				.from(member)
+				.leftJoin(member.team, team)
+				.where(searchCondition(condition));
+	}
+
+	@Benchmark
+	public JPAQuery<MemberTeamDto> booleanBuilder() {
+		return new JPAQuery<Void>()
+				.select(memberTeamDto())
+				.from(member)
+				.leftJoin(member.team, team)
+				.where(builder(condition));
+	}
+
+	@Benchmark
+	public String whereParametersToJpql() {
+		return whereParameters().toString();
+	}
+
+	@Benchmark
+	public String booleanBuilderToJpql() {
+		return booleanBuilder().toString();
+	}
+
+	private static QMemberTeamDto memberTeamDto() {
+		return new QMemberTeamDto(
+				member.id.as("memberId"),
+				member.username,
+				member.age,
+				team.id.as("teamId"),
+				team.name.as("teamName"));
+	}
+
+	// MemberJpaRepository.searchByBuilder 와 같은 조건
+	static BooleanBuilder builder(MemberSearchCondition condition) {
+		BooleanBuilder builder = new BooleanBuilder();
+		if (condition.getUsername() != null) {
+			builder.and(member.username.eq(condition.getUsername()));
+		}
+		if (condition.getTeamName() != null) {
+			builder.and(team.name.eq(condition.getTeamName()));
+		}
+		if (condition.getAgeGoe() != null) {
+			builder.and(member.age.goe(condition.getAgeGoe()));
+		}
+		if (condition.getAgeLoe() != null) {
+			builder.and(member.age.loe(condition.getAgeLoe()));
+		}
+		return builder;
+	}
+}
@@ -0,0 +1,224 @@
+package study.querydsl.jmh;
+
+import static study.querydsl.entity.QMember.member;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.MemberTestRepository;
+
+// 같은 조회를 리포지토리 작성 방식별로 / ./gradlew repositoryBenchmark
+// - derived  : 스프링 데이터 메서드 이름 쿼리 (MemberRepository)
+// - jpql     : JPQL 문자열 (MemberJpaRepository.findByUsername, 나머지는 여기서 em.createQuery)
+// - querydsl : JPAQueryFactory (MemberJpaRepository) / 페이징은 QuerydslPredicateExecutor
+// - support  : Querydsl4RepositorySupport (MemberTestRepository) / 페이징 count 는 PageQueryExecutor 로 동시에 돈다
+// 조회는 username 한건, teamName + age 범위 검색, 같은 검색의 20건 페이지 + count 세가지이고 전부 Member 엔티티를 돌려준다.
+// 스레드 1 / 8 / 64 개로 돌려서 처리량(thrpt), p99(sample 의 p0.99), 할당량(gc.alloc.rate.norm)을 본다.
+// 커넥션 풀(hikari 기본 10)보다 스레드가 많으면 커넥션 대기시간도 같이 잡힌다.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryStyleBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	@Param({"10000"})
+	int members;
+
+	@Param({"derived", "jpql", "querydsl", "support"})
+	String style;
+
+	private ConfigurableApplicationContext context;
+	private Workload workload;
+
+	public static void main(String[] args) throws RunnerException {
+		String result = args.length > 0 ? args[0] : "build/reports/jmh/repository-style";
+		for (int threads : new int[]{1, 8, 64}) {
+			Options options = new OptionsBuilder()
+					.include(RepositoryStyleBenchmark.class.getSimpleName())
+					.threads(threads)
+					.addProfiler(GCProfiler.class)
+					.resultFormat(ResultFormatType.JSON)
+					.result(result + "-" + threads + "t.json")
+					.build();
+			new Runner(options).run();
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = JmhSupport.start(members);
+		workload = switch (style) {
+			case "derived" -> new Derived(context.getBean(MemberRepository.class));
+			case "jpql" -> new Jpql(context.getBean(MemberJpaRepository.class), context.getBean(EntityManager.class));
+			case "querydsl" -> new Querydsl(context.getBean(MemberJpaRepository.class), context.getBean(MemberRepository.class));
+			case "support" -> new Support(context.getBean(MemberTestRepository.class));
+			default -> throw new IllegalArgumentException(style);
+		};
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Member> lookup() {
+		return workload.lookup("member" + ThreadLocalRandom.current().nextInt(members));
+	}
+
+	// age 가 팀을 정하니 (team = age % 10) age 범위 안에서 팀이 맞는 나이 하나만 걸린다. (members / 100 건)
+	@Benchmark
+	public List<Member> filtered() {
+		int age = ThreadLocalRandom.current().nextInt(90);
+		return workload.filtered("team" + age % JmhSupport.TEAM_COUNT, age, age + 9);
+	}
+
+	@Benchmark
+	public Page<Member> paged() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int age = random.nextInt(90);
+		return workload.paged("team" + age % JmhSupport.TEAM_COUNT, age, age + 9,
+				PageRequest.of(random.nextInt(3), PAGE_SIZE));
+	}
+
+	private static MemberSearchCondition condition(String teamName, int ageGoe, int ageLoe) {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName(teamName);
+		condition.setAgeGoe(ageGoe);
+		condition.setAgeLoe(ageLoe);
+		return condition;
+	}
+
+	private interface Workload {
+
+		List<Member> lookup(String username);
+
+		List<Member> filtered(String teamName, int ageGoe, int ageLoe);
+
+		Page<Member> paged(String teamName, int ageGoe, int ageLoe, Pageable pageable);
+	}
+
+	private record Derived(MemberRepository repository) implements Workload {
+
+		@Override
+		public List<Member> lookup(String username) {
+			return repository.findByUsername(username);
+		}
+
+		@Override
+		public List<Member> filtered(String teamName, int ageGoe, int ageLoe) {
+			return repository.findByTeam_NameAndAgeBetween(teamName, ageGoe, ageLoe);
+		}
+
+		@Override
+		public Page<Member> paged(String teamName, int ageGoe, int ageLoe, Pageable pageable) {
+			return repository.findByTeam_NameAndAgeBetween(teamName, ageGoe, ageLoe, pageable);
+		}
+	}
+
+	private record Jpql(MemberJpaRepository repository, EntityManager em) implements Workload {
+
+		private static final String WHERE = " where t.name = :teamName and m.age >= :ageGoe and m.age <= :ageLoe";
+
+		@Override
+		public List<Member> lookup(String username) {
+			return repository.findByUsername(username);
+		}
+
+		@Override
+		public List<Member> filtered(String teamName, int ageGoe, int ageLoe) {
+			return em.createQuery("select m from Member m left join m.team t" + WHERE, Member.class)
+					.setParameter("teamName", teamName)
+					.setParameter("ageGoe", ageGoe)
+					.setParameter("ageLoe", ageLoe)
+					.getResultList();
+		}
+
+		@Override
+		public Page<Member> paged(String teamName, int ageGoe, int ageLoe, Pageable pageable) {
+			List<Member> content = em.createQuery("select m from Member m left join m.team t" + WHERE, Member.class)
+					.setParameter("teamName", teamName)
+					.setParameter("ageGoe", ageGoe)
+					.setParameter("ageLoe", ageLoe)
+					.setFirstResult((int) pageable.getOffset())
+					.setMaxResults(pageable.getPageSize())
+					.getResultList();
+			Long total = em.createQuery("select count(m) from Member m left join m.team t" + WHERE, Long.class)
+					.setParameter("teamName", teamName)
+					.setParameter("ageGoe", ageGoe)
+					.setParameter("ageLoe", ageLoe)
+					.getSingleResult();
+			return new PageImpl<>(content, pageable, total);
+		}
+	}
+
+	private record Querydsl(MemberJpaRepository repository, MemberRepository springDataRepository) implements Workload {
+
+		@Override
+		public List<Member> lookup(String username) {
+			return repository.findByUsername_QueryDsl(username);
+		}
+
+		@Override
+		public List<Member> filtered(String teamName, int ageGoe, int ageLoe) {
+			return repository.searchMember(condition(teamName, ageGoe, ageLoe));
+		}
+
+		@Override
+		public Page<Member> paged(String teamName, int ageGoe, int ageLoe, Pageable pageable) {
+			return springDataRepository.findAll(member.team.name.eq(teamName)
+					.and(member.age.between(ageGoe, ageLoe)), pageable);
+		}
+	}
+
+	private record Support(MemberTestRepository repository) implements Workload {
+
+		@Override
+		public List<Member> lookup(String username) {
+			return repository.findByUsername(username);
+		}
+
+		@Override
+		public List<Member> filtered(String teamName, int ageGoe, int ageLoe) {
+			return repository.search(condition(teamName, ageGoe, ageLoe));
+		}
+
+		@Override
+		public Page<Member> paged(String teamName, int ageGoe, int ageLoe, Pageable pageable) {
+			return repository.applyPagination(condition(teamName, ageGoe, ageLoe), pageable);
+		}
+	}
+}
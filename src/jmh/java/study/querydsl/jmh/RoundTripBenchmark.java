@@ -0,0 +1,155 @@
+package study.querydsl.jmh;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberSearchPredicates.searchCondition;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+
+// 메모리 H2 에 members 건을 넣고 쿼리 만들기 + 실행 + 프로젝션까지 한번에
+// age = ? 조건이라 한번에 1% 를 읽는다. H2 가 같은 파라미터면 직전 결과를 재사용하니 매번 age 를 바꾼다.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoundTripBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	int members;
+
+	private ConfigurableApplicationContext context;
+	private JPAQueryFactory queryFactory;
+	private int age;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = JmhSupport.start(members);
+		queryFactory = context.getBean(JPAQueryFactory.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Member> entity() {
+		return queryFactory
+				.selectFrom(member)
+				.where(member.age.eq(nextAge()))
+				.fetch();
+	}
+
+	@Benchmark
+	public List<MemberDto> bean() {
+		return queryFactory
+				.select(Projections.bean(MemberDto.class, member.username, member.age))
+				.from(member)
+				.where(member.age.eq(nextAge()))
+				.fetch();
+	}
+
+	@Benchmark
+	public List<MemberDto> fields() {
+		return queryFactory
+				.select(Projections.fields(MemberDto.class, member.username, member.age))
+				.from(member)
+				.where(member.age.eq(nextAge()))
+				.fetch();
+	}
+
+	@Benchmark
+	public List<MemberDto> constructor() {
+		return queryFactory
+				.select(Projections.constructor(MemberDto.class, member.username, member.age))
+				.from(member)
+				.where(member.age.eq(nextAge()))
+				.fetch();
+	}
+
+	@Benchmark
+	public List<MemberDto> queryProjection() {
+		return queryFactory
+				.select(new QMemberDto(member.username, member.age))
+				.from(member)
+				.where(member.age.eq(nextAge()))
+				.fetch();
+	}
+
+	@Benchmark
+	public List<Tuple> tuple() {
+		return queryFactory
+				.select(member.username, member.age)
+				.from(member)
+				.where(member.age.eq(nextAge()))
+				.fetch();
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> whereParameters() {
+		return queryFactory
+				.select(memberTeamDto())
+				.from(member)
+				.leftJoin(member.team, team)
+				.where(searchCondition(condition()))
+				.fetch();
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> booleanBuilder() {
+		return queryFactory
+				.select(memberTeamDto())
+				.from(member)
+				.leftJoin(member.team, team)
+				.where(QueryBuildingBenchmark.builder(condition()))
+				.fetch();
+	}
+
+	private int nextAge() {
+		age = (age + 1) % 100;
+		return age;
+	}
+
+	private MemberSearchCondition condition() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("team" + (age % JmhSupport.TEAM_COUNT));
+		condition.setAgeGoe(nextAge());
+		condition.setAgeLoe(age);
+		return condition;
+	}
+
+	private static QMemberTeamDto memberTeamDto() {
+		return new QMemberTeamDto(
+				member.id.as("memberId"),
+				member.username,
+				member.age,
+				team.id.as("teamId"),
+				team.name.as("teamName"));
+	}
+}
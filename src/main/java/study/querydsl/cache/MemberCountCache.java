@@ -0,0 +1,67 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberQueryRepository;
+
+// 페이징 count 쿼리 결과 캐시
+// 같은 검색조건이면 몇 페이지를 보든 전체 개수는 같으니 한번 구한걸 재사용한다.
+// refresh-after 가 지나면 일단 예전 값을 돌려주고 뒤에서 다시 센다. (stale-while-revalidate)
+// expire-after 가 지나면 그때는 기다렸다가 새로 센다.
+@Component
+public class MemberCountCache {
+
+	private final LoadingCache<MemberSearchCondition, Long> cache;
+
+	public MemberCountCache(MemberQueryRepository memberQueryRepository, MeterRegistry meterRegistry,
+			@Value("${member.count-cache.maximum-size:10000}") long maximumSize,
+			@Value("${member.count-cache.refresh-after:10s}") Duration refreshAfter,
+			@Value("${member.count-cache.expire-after:5m}") Duration expireAfter) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.refreshAfterWrite(refreshAfter)
+				.expireAfterWrite(expireAfter)
+				.recordStats()
+				.build(memberQueryRepository::count);
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "memberCount"); // cache.gets{cache=memberCount,result=hit|miss}
+	}
+
+	public long get(MemberSearchCondition condition) {
+		return cache.get(condition.normalize());
+	}
+
+	// 통계나 refresh 에 영향 없이 들어있는지만 본다.
+	public boolean contains(MemberSearchCondition condition) {
+		return cache.policy().getIfPresentQuietly(condition.normalize()) != null;
+	}
+
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	// 쓰기 SQL 이 나가는 즉시 비우고, 트랜잭션이 끝나면(커밋이든 롤백이든) 한번 더 비운다.
+	// 그 사이에 커밋 전 값으로 다시 채워졌을 수 있기 때문
+	@EventListener
+	public void onMemberTableChanged(MemberTableChangedEvent event) {
+		invalidateAll();
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+	public void afterMemberTableTransaction(MemberTableChangedEvent event) {
+		invalidateAll();
+	}
+}
@@ -0,0 +1,97 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+// 검색 결과(List<MemberTeamDto>) 캐시
+// 요청 대부분이 같은 몇십가지 검색조건이라 한번 조회한 결과를 TTL 동안 재사용한다.
+// 크기는 건수가 아니라 대략적인 바이트로 제한하고, 넘치면 Caffeine 의 W-TinyLFU 로 덜 쓰이는것부터 버린다.
+// endpoints 에 없는 엔드포인트는 캐시를 안거치고 바로 조회한다.
+// 무효화는 MemberCountCache 와 같이 member / team 쓰기 SQL 이벤트로 한다.
+@Component
+public class MemberSearchCache {
+
+	// MemberTeamDto 하나 + Long 2개 + String 2개 껍데기 + 리스트 참조 (문자열 내용은 따로 더한다)
+	private static final int ROW_OVERHEAD_BYTES = 160;
+	private static final int LIST_OVERHEAD_BYTES = 64;
+
+	private final Cache<Key, List<MemberTeamDto>> cache;
+	private final Set<String> endpoints;
+
+	public MemberSearchCache(MeterRegistry meterRegistry,
+			@Value("${member.search-cache.maximum-size:64MB}") DataSize maximumSize,
+			@Value("${member.search-cache.expire-after:30s}") Duration expireAfter,
+			@Value("${member.search-cache.endpoints:/api/v1/members}") Set<String> endpoints) {
+		this.cache = Caffeine.newBuilder()
+				.maximumWeight(maximumSize.toBytes())
+				.weigher((Key key, List<MemberTeamDto> value) -> estimateBytes(value))
+				.expireAfterWrite(expireAfter)
+				.recordStats()
+				.build();
+		this.endpoints = endpoints;
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "memberSearch"); // cache.gets{cache=memberSearch,result=hit|miss}, cache.evictions
+		Gauge.builder("member.search.cache.hit.ratio", cache, c -> c.stats().hitRate())
+				.register(meterRegistry);
+		Gauge.builder("member.search.cache.size", cache, c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0L))
+				.baseUnit("bytes")
+				.description("추정 메모리 사용량")
+				.register(meterRegistry);
+	}
+
+	public List<MemberTeamDto> get(String endpoint, MemberSearchCondition condition,
+			Function<MemberSearchCondition, List<MemberTeamDto>> loader) {
+		if (!endpoints.contains(endpoint)) {
+			return loader.apply(condition);
+		}
+		return cache.get(new Key(endpoint, condition.normalize()), key -> List.copyOf(loader.apply(key.condition())));
+	}
+
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	@EventListener
+	public void onMemberTableChanged(MemberTableChangedEvent event) {
+		invalidateAll();
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+	public void afterMemberTableTransaction(MemberTableChangedEvent event) {
+		invalidateAll();
+	}
+
+	static int estimateBytes(List<MemberTeamDto> rows) {
+		long bytes = LIST_OVERHEAD_BYTES;
+		for (MemberTeamDto row : rows) {
+			bytes += ROW_OVERHEAD_BYTES + length(row.getUsername()) + length(row.getTeamName());
+		}
+		return (int) Math.min(bytes, Integer.MAX_VALUE);
+	}
+
+	private static int length(String value) {
+		return value != null ? value.length() : 0;
+	}
+
+	private record Key(String endpoint, MemberSearchCondition condition) {
+	}
+}
@@ -0,0 +1,14 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+
+// member / team 테이블에 insert, update, delete 가 나갔다는 이벤트
+@Getter
+public class MemberTableChangedEvent {
+
+	private final String table;
+
+	public MemberTableChangedEvent(String table) {
+		this.table = table;
+	}
+}
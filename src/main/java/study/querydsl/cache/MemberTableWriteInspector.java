@@ -0,0 +1,73 @@
+package study.querydsl.cache;
+
+import java.util.Map;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// em.persist, 스프링 데이터 save/delete, queryFactory.update()/delete() 같은 벌크 연산까지
+// 결국 모두 SQL 로 나가므로 하이버네이트가 SQL 을 보내기 직전에 member / team 쓰기인지만 보고 이벤트를 날린다.
+// 리스너(캐시)가 EntityManager 쪽 빈에 의존해도 순환참조가 생기지 않도록 이벤트로 분리했다.
+@Component
+public class MemberTableWriteInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+	private static final String[] TABLES = {"member", "team"};
+	private static final String[] WRITE_PREFIXES = {"insert into ", "update ", "delete from "};
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	public MemberTableWriteInspector(ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
+
+	@Override
+	public void customize(Map<String, Object> hibernateProperties) {
+		hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+	}
+
+	@Override
+	public String inspect(String sql) {
+		String table = writtenTable(sql);
+		if (table != null) {
+			eventPublisher.publishEvent(new MemberTableChangedEvent(table));
+		}
+		return sql;
+	}
+
+	// select 는 첫 글자만 보고 바로 빠지도록 가볍게 검사한다.
+	// use_sql_comments 때문에 앞에 /* JPQL */ 주석이 붙어서 오니 건너뛰고 본다.
+	static String writtenTable(String sql) {
+		int start = skipWhitespace(sql, 0);
+		if (sql.startsWith("/*", start)) {
+			int end = sql.indexOf("*/", start);
+			if (end < 0) {
+				return null;
+			}
+			start = skipWhitespace(sql, end + 2);
+		}
+		for (String prefix : WRITE_PREFIXES) {
+			if (!sql.regionMatches(true, start, prefix, 0, prefix.length())) {
+				continue;
+			}
+			int tableStart = start + prefix.length();
+			for (String table : TABLES) {
+				int tableEnd = tableStart + table.length();
+				if (sql.regionMatches(true, tableStart, table, 0, table.length())
+						&& (tableEnd == sql.length() || Character.isWhitespace(sql.charAt(tableEnd)))) {
+					return table;
+				}
+			}
+			return null;
+		}
+		return null;
+	}
+
+	private static int skipWhitespace(String sql, int index) {
+		while (index < sql.length() && Character.isWhitespace(sql.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+}
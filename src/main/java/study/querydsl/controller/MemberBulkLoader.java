@@ -0,0 +1,126 @@
+package study.querydsl.controller;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+// 로컬/부하테스트용 대량 데이터 적재
+// 한건씩 persist 하고 커밋 한번에 다 하면 영속성 컨텍스트에 전부 쌓여서 힙이 터진다.
+// chunk-size 건마다 JDBC batch 로 flush 하고 clear 한 다음 커밋해서 몇건을 넣든 힙은 일정하다.
+// id 는 기본 매핑 그대로 member_SEQ 를 pooled 로 쓴다. (allocationSize 50 / 시퀀스 조회는 50건에 한번)
+// allocationSize 를 키우면 이미 만들어진 DB 의 시퀀스 increment 와 안맞아서 기동이 실패하니 엔티티 매핑은 건드리지 않는다.
+// 수백만건 넣을때는 SQL 로그(org.hibernate.SQL, sql-trace)를 꺼야 제 속도가 나온다.
+@Slf4j
+@Profile("local")
+@Component
+public class MemberBulkLoader {
+
+	private final EntityManager em;
+	private final TransactionTemplate transactionTemplate;
+	private final int memberCount;
+	private final int teamCount;
+	private final double skew;
+	private final int chunkSize;
+
+	public MemberBulkLoader(EntityManager em, PlatformTransactionManager transactionManager,
+			@Value("${member.seed.members:100}") int memberCount,
+			@Value("${member.seed.teams:2}") int teamCount,
+			@Value("${member.seed.skew:0}") double skew,
+			@Value("${member.seed.chunk-size:1000}") int chunkSize) {
+		this.em = em;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.memberCount = memberCount;
+		this.teamCount = teamCount;
+		this.skew = skew;
+		this.chunkSize = chunkSize;
+	}
+
+	public void load() {
+		long start = System.nanoTime();
+		List<Long> teamIds = transactionTemplate.execute(status -> persistTeams());
+		TeamPicker teamPicker = new TeamPicker(teamIds.size(), skew);
+		for (int from = 0; from < memberCount; from += chunkSize) {
+			int to = Math.min(from + chunkSize, memberCount);
+			int chunkFrom = from;
+			transactionTemplate.executeWithoutResult(status -> persistMembers(chunkFrom, to, teamIds, teamPicker));
+		}
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		log.info("seeded {} members / {} teams in {}s ({} rows/s)", memberCount, teamCount,
+				String.format("%.1f", seconds), Math.round((memberCount + teamCount) / seconds));
+	}
+
+	private List<Long> persistTeams() {
+		List<Long> teamIds = new ArrayList<>(teamCount);
+		for (int i = 0; i < teamCount; i++) {
+			Team team = new Team(teamName(i));
+			em.persist(team);
+			teamIds.add(team.getId());
+		}
+		return teamIds;
+	}
+
+	// clear 로 팀도 준영속이 되니 청크마다 프록시로 다시 받는다. (select 안나감)
+	// new Member(.., team) 은 team.members 에도 넣어서 리스트가 계속 커지니 FK 만 세팅한다.
+	private void persistMembers(int from, int to, List<Long> teamIds, TeamPicker teamPicker) {
+		em.unwrap(Session.class).setJdbcBatchSize(chunkSize);
+		Team[] teams = new Team[teamIds.size()];
+		for (int i = from; i < to; i++) {
+			int teamIndex = teamPicker.pick(i);
+			if (teams[teamIndex] == null) {
+				teams[teamIndex] = em.getReference(Team.class, teamIds.get(teamIndex));
+			}
+			Member member = new Member("member" + i, i % 100);
+			member.setTeam(teams[teamIndex]);
+			em.persist(member);
+		}
+		em.flush();
+		em.clear();
+	}
+
+	// teamA, teamB ... 다음은 team26, team27 ...
+	private static String teamName(int i) {
+		return i < 26 ? "team" + (char) ('A' + i) : "team" + i;
+	}
+
+	// skew 0 이면 순서대로 돌아가며 고르게, 클수록 앞쪽 팀에 몰린다. (i 번째 팀 가중치 = 1 / (i + 1)^skew)
+	static class TeamPicker {
+
+		private final int teamCount;
+		private final double[] cumulative;
+		private final Random random = new Random(0);
+
+		TeamPicker(int teamCount, double skew) {
+			this.teamCount = teamCount;
+			if (skew <= 0) {
+				this.cumulative = null;
+				return;
+			}
+			this.cumulative = new double[teamCount];
+			double sum = 0;
+			for (int i = 0; i < teamCount; i++) {
+				sum += 1 / Math.pow(i + 1, skew);
+				cumulative[i] = sum;
+			}
+		}
+
+		int pick(int memberIndex) {
+			if (cumulative == null) {
+				return memberIndex % teamCount;
+			}
+			double target = random.nextDouble() * cumulative[cumulative.length - 1];
+			int index = Arrays.binarySearch(cumulative, target);
+			return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+		}
+	}
+}
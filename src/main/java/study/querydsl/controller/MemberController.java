@@ -1,28 +1,62 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.cache.MemberSearchCache;
+import study.querydsl.dto.MemberCursorResult;
 import study.querydsl.dto.MemberDto;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberQueryRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.MemberFields;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+	private static final String NDJSON = "application/x-ndjson";
+
 	private final MemberJpaRepository memberJpaRepository;
 	private final MemberRepository memberRepository;
+	private final MemberQueryRepository memberQueryRepository;
+	private final ObjectMapper objectMapper;
+	private final MemberSearchCache memberSearchCache;
 
 	@GetMapping("/api/v1/members")
-	public List<MemberTeamDto> selectMemberV1(MemberSearchCondition condition) {
-		return memberJpaRepository.search(condition);
+	public List<?> selectMemberV1(MemberSearchCondition condition, @RequestParam(required = false) String fields) {
+		if (fields != null) {
+			return memberRepository.searchFields(condition, MemberFields.of(fields));
+		}
+		// 같은 검색조건이 반복되니 결과를 캐시해서 쓴다 (member.search-cache.endpoints 로 끌수있음)
+		return memberSearchCache.get("/api/v1/members", condition, memberJpaRepository::search);
 	}
+	// localhost:8080/api/v1/members?teamName=teamB&fields=username,age -> [{"username":"member1","age":10}, ...]
+	// 고른 컬럼만 select 하고 team 컬럼(teamName)을 안고르면 team 조인도 안한다. (teamId 는 FK 로 읽는다)
 	// localhost:8080/api/v1/members?teamName=teamB&ageGoe=35&ageLoe=40&username=member37
 	// where
 	//            m1_0.username=?
@@ -30,9 +64,67 @@ public class MemberController {
 	//            and m1_0.age>=?
 	//            and m1_0.age<=?
 
+	// 조건 여러개를 한번에 / 응답은 요청한 조건 순서대로 결과 목록
+	@PostMapping("/api/v1/members/batch")
+	public List<List<MemberTeamDto>> selectMemberV1Batch(@RequestBody List<MemberSearchCondition> conditions) {
+		return memberRepository.searchBatch(conditions);
+	}
+	// POST localhost:8080/api/v1/members/batch [{"teamName":"teamA"},{"ageGoe":30,"ageLoe":40}] -> [[...], [...]]
+	// where t1_0.name=? or (m1_0.age>=? and m1_0.age<=?) 한번 / 같은 조건은 한번만 넣고, 50개 넘으면 400
+
+	// 전체 export 처럼 건수가 많을때 / 한 줄에 한 건씩 NDJSON 으로 읽는 대로 바로 내려보낸다.
+	// 스트림을 다 쓸때까지 커넥션이 필요해서 읽기 전용 트랜잭션으로 묶는다.
+	@Transactional(readOnly = true)
+	@GetMapping(value = "/api/v1/members/stream", produces = NDJSON)
+	public void streamMemberV1(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+		response.setContentType(NDJSON);
+		// 한 건마다 flush 하지 않고 응답 버퍼가 찰때마다 나가도록
+		ObjectWriter writer = objectMapper.writer()
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		OutputStream out = response.getOutputStream();
+		try (Stream<MemberTeamDto> members = memberQueryRepository.stream(condition)) {
+			Iterator<MemberTeamDto> iterator = members.iterator();
+			while (iterator.hasNext()) {
+				writer.writeValue(out, iterator.next());
+				out.write('\n');
+			}
+		}
+		out.flush();
+	}
+	// localhost:8080/api/v1/members/stream?teamName=teamA
+
 	@GetMapping("/api/v2/members")
-	public Page<MemberTeamDto> selectMemberV2(MemberSearchCondition condition, Pageable pageable) {
+	public Page<?> selectMemberV2(MemberSearchCondition condition, Pageable pageable,
+			@RequestParam(required = false) String fields) {
+		if (fields != null) {
+			return memberRepository.searchFields(condition, MemberFields.of(fields), pageable);
+		}
 		return memberRepository.searchComplex(condition, pageable);
 	}
 	// localhost:8080/api/v2/members?page=1&size=5
+	// localhost:8080/api/v2/members?page=1&size=5&sort=age,desc&sort=username -> 마지막에 id desc 가 붙는다
+
+	@GetMapping("/api/v2/members/slice")
+	public Slice<MemberTeamDto> selectMemberV2Slice(MemberSearchCondition condition, Pageable pageable) {
+		return memberRepository.searchSlice(condition, pageable);
+	}
+	// localhost:8080/api/v2/members/slice?page=1&size=5 -> count 쿼리 없이 hasNext 만 내려준다
+
+	@GetMapping("/api/v3/members")
+	public MemberCursorResult selectMemberV3(MemberSearchCondition condition,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "20") int size) {
+		return memberRepository.searchByCursor(condition, cursor, size);
+	}
+	// localhost:8080/api/v3/members?size=5 -> 응답의 nextCursor 를 다음 요청에 넘긴다
+	// localhost:8080/api/v3/members?size=5&cursor=MTQ6MTUx
+
+	// 정렬할 수 없는 항목(sort=) 이나 잘못된 커서(cursor=) / 리포지토리를 거치면 스프링이 예외를 바꿔서 던진다
+	@ExceptionHandler({IllegalArgumentException.class, InvalidDataAccessApiUsageException.class})
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public Map<String, String> badRequest(RuntimeException e) {
+		Throwable cause = e instanceof InvalidDataAccessApiUsageException && e.getCause() != null ? e.getCause() : e;
+		return Map.of("message", String.valueOf(cause.getMessage()));
+	}
 }
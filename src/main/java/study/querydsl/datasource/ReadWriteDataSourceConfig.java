@@ -0,0 +1,59 @@
+package study.querydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.cache.MemberTableChangedEvent;
+
+// member.datasource.routing=true 면 spring.datasource 는 primary, member.datasource.replica 는 replica 커넥션 풀이 된다.
+// DataSource 빈은 ReadWriteRoutingDataSource 하나만 두고 풀 두개는 그 안에 숨긴다. (SQL 추적도 한번만 감싸진다)
+// ddl-auto 는 primary 에만 적용되니 replica 스키마는 복제로 맞춰져 있어야 한다.
+@Configuration
+@ConditionalOnProperty(name = "member.datasource.routing", havingValue = "true")
+public class ReadWriteDataSourceConfig {
+
+	private ReadWriteRoutingDataSource dataSource;
+
+	@Bean
+	public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties,
+			@Value("${spring.datasource.hikari.maximum-pool-size:10}") int primaryPoolSize,
+			@Value("${member.datasource.replica.url}") String replicaUrl,
+			@Value("${member.datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+			@Value("${member.datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+			@Value("${member.datasource.replica.maximum-pool-size:10}") int replicaPoolSize,
+			@Value("${member.datasource.lag-tolerance:0s}") Duration lagTolerance) {
+		HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		primary.setPoolName("primary");
+		primary.setMaximumPoolSize(primaryPoolSize);
+
+		HikariDataSource replica = new HikariDataSource();
+		replica.setPoolName("replica");
+		replica.setJdbcUrl(replicaUrl);
+		replica.setUsername(replicaUsername);
+		replica.setPassword(replicaPassword);
+		replica.setDriverClassName(properties.determineDriverClassName());
+		replica.setMaximumPoolSize(replicaPoolSize);
+		replica.setReadOnly(true);
+
+		dataSource = new ReadWriteRoutingDataSource(primary, replica, lagTolerance);
+		return dataSource;
+	}
+
+	@EventListener
+	public void onMemberTableChanged(MemberTableChangedEvent event) {
+		dataSource.markWrite();
+	}
+
+	// 커밋 시점부터 다시 센다
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+	public void afterMemberTableTransaction(MemberTableChangedEvent event) {
+		dataSource.markWrite();
+	}
+}
@@ -0,0 +1,68 @@
+package study.querydsl.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// @Transactional(readOnly = true) 트랜잭션은 replica, 나머지(쓰기 트랜잭션, 트랜잭션 없이 나가는 쿼리)는 primary 로 보낸다.
+// 트랜잭션 매니저는 readOnly 표시를 하기 전에 커넥션부터 꺼내기 때문에 LazyConnectionDataSourceProxy 로 감싸서
+// 실제 커넥션은 첫 SQL 이 나갈때 고른다. (그때는 readOnly 여부가 정해져 있다)
+// 쓰기가 나간 뒤 lag-tolerance 동안은 replica 에 아직 안넘어갔을 수 있어서 readOnly 여도 primary 에서 읽는다.
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+	enum Target {PRIMARY, REPLICA}
+
+	private final DataSource primary;
+	private final DataSource replica;
+	private final long lagToleranceNanos;
+	private volatile long lastWriteNanos;
+	private volatile boolean written;
+
+	public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration lagTolerance) {
+		this.primary = primary;
+		this.replica = replica;
+		this.lagToleranceNanos = lagTolerance.toNanos();
+		Router router = new Router();
+		router.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+		router.setDefaultTargetDataSource(primary);
+		router.afterPropertiesSet();
+		setTargetDataSource(router);
+	}
+
+	// member / team 쓰기 SQL 이 나갈때와 그 트랜잭션이 끝날때 불린다 (ReadWriteDataSourceConfig)
+	public void markWrite() {
+		lastWriteNanos = System.nanoTime();
+		written = true;
+	}
+
+	Target currentTarget() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return Target.PRIMARY;
+		}
+		if (lagToleranceNanos > 0 && written && System.nanoTime() - lastWriteNanos < lagToleranceNanos) {
+			return Target.PRIMARY;
+		}
+		return Target.REPLICA;
+	}
+
+	@Override
+	public void close() throws Exception {
+		if (primary instanceof AutoCloseable closeable) {
+			closeable.close();
+		}
+		if (replica instanceof AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+
+	private class Router extends AbstractRoutingDataSource {
+
+		@Override
+		protected Object determineCurrentLookupKey() {
+			return currentTarget();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package study.querydsl.dto;
+
+import static org.springframework.util.StringUtils.hasText;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.Getter;
+
+// 키셋(seek) 페이징용 커서 / 마지막으로 내려준 row 의 (age, memberId) 를 기억한다.
+// 클라이언트는 내용을 몰라도 되도록 base64 로 감싸서 넘긴다.
+@Getter
+public class MemberCursor {
+
+	private final int age;
+	private final Long memberId;
+
+	public MemberCursor(int age, Long memberId) {
+		this.age = age;
+		this.memberId = memberId;
+	}
+
+	public static MemberCursor of(MemberTeamDto last) {
+		return new MemberCursor(last.getAge(), last.getMemberId());
+	}
+
+	public String encode() {
+		String raw = age + ":" + memberId;
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// 커서가 없으면 첫 페이지
+	public static MemberCursor decode(String cursor) {
+		if (!hasText(cursor)) {
+			return null;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int idx = raw.indexOf(':');
+			return new MemberCursor(Integer.parseInt(raw.substring(0, idx)),
+					Long.parseLong(raw.substring(idx + 1)));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("잘못된 커서입니다: " + cursor, e);
+		}
+	}
+}
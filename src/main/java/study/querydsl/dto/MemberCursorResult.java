@@ -0,0 +1,18 @@
+package study.querydsl.dto;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class MemberCursorResult {
+
+	private List<MemberTeamDto> content;
+	private String nextCursor; // 다음 페이지가 없으면 null
+	private boolean hasNext;
+
+	public MemberCursorResult(List<MemberTeamDto> content, String nextCursor, boolean hasNext) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+		this.hasNext = hasNext;
+	}
+}
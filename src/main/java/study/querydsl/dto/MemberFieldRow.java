@@ -0,0 +1,43 @@
+package study.querydsl.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.io.IOException;
+
+// fields= 로 고른 컬럼만 담은 row / DTO 를 만들지 않고 DB 에서 읽은 값 배열을 그대로 들고있다가
+// {"username":"member1","teamName":"teamA"} 처럼 고른 순서대로 바로 JSON 으로 쓴다.
+@JsonSerialize(using = MemberFieldRow.Serializer.class)
+public final class MemberFieldRow {
+
+	private final String[] names; // 같은 쿼리의 row 들은 이름 배열을 같이 쓴다
+	private final Object[] values;
+
+	public MemberFieldRow(String[] names, Object[] values) {
+		this.names = names;
+		this.values = values;
+	}
+
+	public Object get(String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return values[i];
+			}
+		}
+		return null;
+	}
+
+	static class Serializer extends JsonSerializer<MemberFieldRow> {
+
+		@Override
+		public void serialize(MemberFieldRow row, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+			gen.writeStartObject();
+			for (int i = 0; i < row.names.length; i++) {
+				gen.writeFieldName(row.names[i]);
+				serializers.defaultSerializeValue(row.values[i], gen);
+			}
+			gen.writeEndObject();
+		}
+	}
+}
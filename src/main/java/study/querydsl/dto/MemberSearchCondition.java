@@ -1,5 +1,7 @@
 package study.querydsl.dto;
 
+import static org.springframework.util.StringUtils.hasText;
+
 import lombok.Data;
 
 @Data
@@ -11,4 +13,14 @@ public class MemberSearchCondition {
 	private Integer ageGoe;
 	private Integer ageLoe;
 
+	// 캐시 키로 쓸 때 "" 나 " " 는 조건 없음(null)과 같은 쿼리가 나가므로 같은 키로 맞춰준다.
+	// 원본을 건드리지 않도록 복사본을 돌려준다.
+	public MemberSearchCondition normalize() {
+		MemberSearchCondition normalized = new MemberSearchCondition();
+		normalized.setUsername(hasText(username) ? username : null);
+		normalized.setTeamName(hasText(teamName) ? teamName : null);
+		normalized.setAgeGoe(ageGoe);
+		normalized.setAgeLoe(ageLoe);
+		return normalized;
+	}
 }
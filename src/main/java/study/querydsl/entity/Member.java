@@ -5,8 +5,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,6 +16,10 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
+@Table(indexes = {
+		@Index(name = "idx_member_age_id", columnList = "age, member_id"), // 키셋 페이징, age 정렬 (age, id) 정렬/탐색용
+		@Index(name = "idx_member_username", columnList = "username") // username 검색/정렬
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
@@ -1,10 +1,13 @@
 package study.querydsl.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.AccessLevel;
@@ -12,8 +15,16 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// 몇 안되는 팀을 member.team 지연로딩으로 계속 읽으니 2차 캐시에 올려둔다.
+// JPQL 벌크 update/delete 가 team 테이블을 건드리면 하이버네이트가 이 영역을 비운다.
+// members 컬렉션은 캐시하지 않는다. 컬렉션 캐시는 id 만 들고있어서 Member 가 캐시 안되면 오히려 한건씩 조회한다.
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) // teamName 검색/정렬
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team") // 설정은 application.conf 의 caffeine.jcache.team
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
@@ -3,31 +3,75 @@ package study.querydsl.repository;
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberSearchPredicates.ageGoe;
+import static study.querydsl.repository.support.MemberSearchPredicates.ageLoe;
+import static study.querydsl.repository.support.MemberSearchPredicates.searchCondition;
+import static study.querydsl.repository.support.MemberSearchPredicates.teamNameEq;
+import static study.querydsl.repository.support.MemberSearchPredicates.usernameEq;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import jakarta.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QTeam;
+import study.querydsl.repository.support.BatchLoader;
+import study.querydsl.repository.support.BulkProgressListener;
+import study.querydsl.repository.support.QueryMetrics;
+import study.querydsl.repository.support.ReadOnlyQueries;
+import study.querydsl.repository.support.ShapeQueryCache;
 
 @Repository
 public class MemberJpaRepository {
 
+	private static final QMemberTeamDto MEMBER_TEAM_DTO = new QMemberTeamDto(
+			member.id.as("memberId"),
+			member.username,
+			member.age,
+			team.id.as("teamId"),
+			team.name.as("teamName")
+	);
+
 	private final EntityManager em; // 동시성 문제가 있지않냐 의문을 가질수있지만 자바에서 프록시를 생성하고 바인딩을 해주기 때문에 문제없다.
 	private final JPAQueryFactory queryFactory;
+	private final TransactionTemplate chunkTransaction;
+	private final int bulkChunkSize;
+	private final QueryMetrics queryMetrics;
+
+	// 검색은 조건 모양별로 JPQL 을 한번만 만들고 파라미터만 바꿔 쓴다. (ShapeQueryCache)
+	private final ShapeQueryCache<MemberTeamDto> searchByBuilderQueries = new ShapeQueryCache<>(this::searchByBuilderQuery);
+	private final ShapeQueryCache<MemberTeamDto> searchQueries = new ShapeQueryCache<>(this::searchQuery);
+	private final ShapeQueryCache<Member> searchMemberQueries = new ShapeQueryCache<>(this::searchMemberQuery);
 
-	public MemberJpaRepository(EntityManager em) {
+	public MemberJpaRepository(EntityManager em, PlatformTransactionManager transactionManager,
+			QueryMetrics queryMetrics, @Value("${member.bulk.chunk-size:1000}") int bulkChunkSize) {
 		this.em = em;
 		this.queryFactory = new JPAQueryFactory(em);
+		this.chunkTransaction = new TransactionTemplate(transactionManager);
+		this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.bulkChunkSize = bulkChunkSize;
+		this.queryMetrics = queryMetrics;
 	}
 
 	// 빈등록하고 바로 주입하는 방법
@@ -56,6 +100,13 @@ public class MemberJpaRepository {
 				.fetch();
 	}
 
+	// 읽기만 할때 / 쓰기 트랜잭션 안에서 불러도 스냅샷을 안만들고 flush 때 dirty checking 에서 빠진다
+	@Transactional(readOnly = true)
+	public List<Member> findAll_QueryDslReadOnly() {
+		return ReadOnlyQueries.readOnly(queryFactory.selectFrom(member))
+				.fetch();
+	}
+
 	public List<Member> findByUsername(String name) {
 		return em.createQuery("select m from Member m where m.username = :username", Member.class)
 				.setParameter("username", name)
@@ -69,53 +120,39 @@ public class MemberJpaRepository {
 				.fetch();
 	}
 
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
+		return queryMetrics.record("MemberJpaRepository.searchByBuilder", condition, null,
+				call -> searchByBuilderQueries.fetch(em, condition));
+	}
+
+	private JPAQuery<MemberTeamDto> searchByBuilderQuery(MemberSearchCondition condition) {
+		// 조건식은 MemberSearchPredicates 것을 같이 쓴다. null 은 and() 에서 무시된다.
 		BooleanBuilder builder = new BooleanBuilder();
-		if (hasText(condition.getUsername())) {
-			builder.and(member.username.eq(condition.getUsername()));
-		}
-		if (hasText(condition.getTeamName())) {
-			builder.and(team.name.eq(condition.getTeamName()));
-		}
-		if (condition.getAgeGoe() != null) {
-			builder.and(member.age.goe(condition.getAgeGoe()));
-		}
-		if (condition.getAgeLoe() != null) {
-			builder.and(member.age.loe(condition.getAgeLoe()));
-		}
+		builder.and(usernameEq(condition.getUsername()));
+		builder.and(teamNameEq(condition.getTeamName()));
+		builder.and(ageGoe(condition.getAgeGoe()));
+		builder.and(ageLoe(condition.getAgeLoe()));
 
 		return queryFactory
-				.select(new QMemberTeamDto(
-						member.id.as("memberId"),
-						member.username,
-						member.age,
-						team.id.as("teamId"),
-						team.name.as("teamName")
-				))
+				.select(MEMBER_TEAM_DTO)
 				.from(member)
 				.leftJoin(member.team, team)
-				.where(builder)
-				.fetch();
+				.where(builder);
 	}
 
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> search(MemberSearchCondition condition) {
+		return queryMetrics.record("MemberJpaRepository.search", condition, null,
+				call -> searchQueries.fetch(em, condition));
+	}
+
+	private JPAQuery<MemberTeamDto> searchQuery(MemberSearchCondition condition) {
 		return queryFactory
-				.select(new QMemberTeamDto(
-						member.id.as("memberId"),
-						member.username,
-						member.age,
-						team.id.as("teamId"),
-						team.name.as("teamName")
-				))
+				.select(MEMBER_TEAM_DTO)
 				.from(member)
 				.leftJoin(member.team, team)
-				.where(
-						usernameEq(condition.getUsername()),
-						teamNameEq(condition.getTeamName()),
-						ageGoeEq(condition.getAgeGoe()),
-						ageLoeEq(condition.getAgeLoe())
-				)
-				.fetch();
+				.where(searchCondition(condition));
 	}
 
 	// Member 로 뽑아내는 메서드인데 위에서 사용한 메서드를 동일하게 재사용가능하다.
@@ -123,39 +160,128 @@ public class MemberJpaRepository {
 	// 조립도 가능하다 4개를 다 묶어서 파라미터로 condition 만 넘기게 할 수도 있음
 	// 실무에서는 isValid() 해서 같은 조건을 많이 사용하는 경우가 많음 그래서 파라미터로 condition 하나만 넘기고 깔끔하게 사용하는게 김영한이 자주쓴다함
 	public List<Member> searchMember(MemberSearchCondition condition) {
+		return queryMetrics.record("MemberJpaRepository.searchMember", condition, null,
+				call -> searchMemberQueries.fetch(em, condition));
+	}
+
+	// searchMember 와 같은 조건 / 읽은 Member 는 읽기 전용 (ReadOnlyQueries)
+	@Transactional(readOnly = true)
+	public List<Member> searchMemberReadOnly(MemberSearchCondition condition) {
+		return queryMetrics.record("MemberJpaRepository.searchMemberReadOnly", condition, null,
+				call -> searchMemberQueries.fetch(em, condition, ReadOnlyQueries::readOnly));
+	}
+
+	private JPAQuery<Member> searchMemberQuery(MemberSearchCondition condition) {
 		return queryFactory
 				.selectFrom(member)
 				.leftJoin(member.team, team)
 				.where(
 						usernameEq(condition.getUsername()),
 						teamNameEq(condition.getTeamName()),
-						betweenAge(condition.getAgeLoe(), condition.getAgeGoe()) // 이렇게 조립가능. 근데 이거는 null 에 대한 대비를 더 해야 쓸수있음
-				)
-				.fetch();
+						betweenAge(condition.getAgeLoe(), condition.getAgeGoe()) // 이렇게 조립가능. 둘 중 null 인 쪽은 조건에서 빠진다
+				);
 	}
 
-	// Predicate 보다 BooleanExpression 으로 선언해야 재활용이 가능하다.
-//	private Predicate usernameEq(String username) {
-//		return hasText(username) ? member.username.eq(username) : null;
-//	}
-	private BooleanExpression betweenAge(int ageLoe, int ageGoe) {
-		return ageLoeEq(ageLoe).and(ageGoeEq(ageGoe));
+	// searchMember / findAll_QueryDsl 결과의 팀을 한번에 읽어둔다. 안하면 getTeam().getName() 할때마다 팀 조회가 나간다.
+	public List<Member> loadTeams(List<Member> members) {
+		return BatchLoader.load(em, members, Member::getTeam);
 	}
 
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
+	// 운영용 벌크 update / delete
+	// 테이블 전체를 update 한방으로 하면 끝날때까지 락을 잡고, 끝나고 em.clear() 로 영속성 컨텍스트를 통째로 비워야한다.
+	// 여기서는 id 순으로 chunkSize 건씩 끊어서 청크마다 새 트랜잭션으로 커밋하고,
+	// 청크가 커밋될때마다 그 청크의 Member 만 지금 영속성 컨텍스트에서 detach 해서 다음 조회때 DB 값을 읽게 한다.
+	// (id 를 끝까지 모아두면 테이블 크기만큼 메모리를 쓴다)
+	// 주의
+	// - 청크는 별도 트랜잭션이라 호출한 트랜잭션에서 아직 커밋 안한 변경은 안보이고, 그 row 를 건드리면 락을 기다린다.
+	// - update / delete 문에는 조인을 못하니 predicate 는 member 컬럼 조건만 쓴다.
+	// - 중간에 실패하면 이미 커밋된 청크는 그대로 남는다.
+	public long bulkUpdate(Predicate predicate, Consumer<JPAUpdateClause> setter) {
+		return bulkUpdate(predicate, setter, bulkChunkSize, BulkProgressListener.NONE);
 	}
 
-	private BooleanExpression teamNameEq(String teamName) {
-		return hasText(teamName) ? team.name.eq(teamName) : null;
+	public long bulkUpdate(Predicate predicate, Consumer<JPAUpdateClause> setter, int chunkSize,
+			BulkProgressListener listener) {
+		return inChunks(predicate, chunkSize, listener, idRange -> {
+			JPAUpdateClause update = queryFactory.update(member).where(predicate, idRange);
+			setter.accept(update);
+			return update.execute();
+		});
 	}
 
-	private BooleanExpression ageGoeEq(Integer ageGoe) {
-		return ageGoe != null ? member.age.goe(ageGoe) : null;
+	public long bulkDelete(Predicate predicate) {
+		return bulkDelete(predicate, bulkChunkSize, BulkProgressListener.NONE);
 	}
 
-	private BooleanExpression ageLoeEq(Integer ageLoe) {
-		return ageLoe != null ? member.age.loe(ageLoe) : null;
+	public long bulkDelete(Predicate predicate, int chunkSize, BulkProgressListener listener) {
+		return inChunks(predicate, chunkSize, listener,
+				idRange -> queryFactory.delete(member).where(predicate, idRange).execute());
+	}
+
+	private long inChunks(Predicate predicate, int chunkSize, BulkProgressListener listener,
+			ToLongFunction<BooleanExpression> operation) {
+		Long lastId = null;
+		long affected = 0;
+		int chunks = 0;
+		while (true) {
+			Long from = lastId;
+			Chunk chunk = chunkTransaction.execute(status -> {
+				List<Long> ids = queryFactory
+						.select(member.id)
+						.from(member)
+						.where(predicate, from != null ? member.id.gt(from) : null)
+						.orderBy(member.id.asc())
+						.limit(chunkSize)
+						.fetch();
+				if (ids.isEmpty()) {
+					return new Chunk(ids, 0);
+				}
+				Long to = ids.get(ids.size() - 1);
+				BooleanExpression idRange = member.id.loe(to).and(from != null ? member.id.gt(from) : null);
+				return new Chunk(ids, operation.applyAsLong(idRange));
+			});
+			if (chunk.ids().isEmpty()) {
+				break;
+			}
+			detachMembers(chunk.ids());
+			lastId = chunk.ids().get(chunk.ids().size() - 1);
+			affected += chunk.affected();
+			listener.onChunk(++chunks, lastId, affected);
+		}
+		return affected;
+	}
+
+	// 지금 스레드에 묶인 영속성 컨텍스트에서 해당 id 의 Member 만 뺀다. (id 로 바로 찾아서 청크 크기만큼만 본다)
+	private void detachMembers(List<Long> ids) {
+		if (!TransactionSynchronizationManager.hasResource(em.getEntityManagerFactory())) {
+			return;
+		}
+		SessionImplementor session = em.unwrap(SessionImplementor.class);
+		EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+		PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+		for (Long id : ids) {
+			Object managed = persistenceContext.getEntity(session.generateEntityKey(id, persister));
+			if (managed != null) {
+				em.detach(managed);
+			}
+		}
+	}
+
+	private record Chunk(List<Long> ids, long affected) {
+	}
+
+	// Predicate 보다 BooleanExpression 으로 선언해야 재활용이 가능하다.
+//	private Predicate usernameEq(String username) {
+//		return hasText(username) ? member.username.eq(username) : null;
+//	}
+	// int 로 받으면 조건이 비어있을때 언박싱 NPE 가 난다. null 인 쪽은 빼고 조립
+	private BooleanExpression betweenAge(Integer ageLoe, Integer ageGoe) {
+		BooleanExpression loe = ageLoe(ageLoe);
+		BooleanExpression goe = ageGoe(ageGoe);
+		if (loe == null) {
+			return goe;
+		}
+		return goe == null ? loe : loe.and(goe);
 	}
 
 }
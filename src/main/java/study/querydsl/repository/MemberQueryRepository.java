@@ -1,63 +1,88 @@
 package study.querydsl.repository;
 
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.JoinEliminator.leftJoinIfUsed;
+import static study.querydsl.repository.support.MemberSearchPredicates.searchCondition;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Wildcard;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.ShapeQueryCache;
 
 // 뭔가 특화된 기능의 메서드는 이렇게 클래스로 만들어서 인젝션 받아 사용하면 된다. 너무 custom 리포지토리로 다 하려하지 않아도 된다.
 // 공통적인 조회인경우 MemberRepository 에 넣고 그게 아니고 특정 화면이나 특정 상황에 걸리는 메서드라면 이렇게 만드는게 찾기도 편하고 깔끔하다.
 @Repository
 public class MemberQueryRepository {
 
+	private static final int STREAM_FETCH_SIZE = 500;
+
+	private static final QMemberTeamDto MEMBER_TEAM_DTO = new QMemberTeamDto(
+			member.id.as("memberId"),
+			member.username,
+			member.age,
+			team.id.as("teamId"),
+			team.name.as("teamName")
+	);
+
+	private final EntityManager em;
 	private final JPAQueryFactory queryFactory;
 
+	// 매 요청마다 Querydsl 식을 만들고 JPQL 로 직렬화하지 않고 파라미터만 바인딩한다.
+	private final ShapeQueryCache<MemberTeamDto> searchQueries = new ShapeQueryCache<>(this::searchQuery);
+	private final ShapeQueryCache<Long> countQueries = new ShapeQueryCache<>(this::countQuery);
+
 	public MemberQueryRepository(EntityManager em) {
+		this.em = em;
 		this.queryFactory = new JPAQueryFactory(em);
 	}
 
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> search(MemberSearchCondition condition) {
-		return queryFactory
-				.select(new QMemberTeamDto(
-						member.id.as("memberId"),
-						member.username,
-						member.age,
-						team.id.as("teamId"),
-						team.name.as("teamName")
-				))
-				.from(member)
-				.leftJoin(member.team, team)
-				.where(
-						usernameEq(condition.getUsername()),
-						teamNameEq(condition.getTeamName()),
-						ageGoeEq(condition.getAgeGoe()),
-						ageLoeEq(condition.getAgeLoe())
-				)
-				.fetch();
+		return searchQueries.fetch(em, condition);
 	}
 
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
+	// 대량 export 용 / List 로 한번에 올리지 않고 JDBC 커서로 STREAM_FETCH_SIZE 만큼씩 읽어온다.
+	// DTO 로 바로 조회하기 때문에 영속성 컨텍스트에 엔티티가 쌓이지 않아서 몇건이든 메모리가 일정하다.
+	// 다 읽을때까지 커넥션을 잡고 있으니 트랜잭션 안에서 쓰고 try-with-resources 로 꼭 닫아야 한다.
+	public Stream<MemberTeamDto> stream(MemberSearchCondition condition) {
+		return searchQuery(condition)
+				.setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+				.setHint(HibernateHints.HINT_READ_ONLY, true)
+				.stream();
 	}
 
-	private BooleanExpression teamNameEq(String teamName) {
-		return hasText(teamName) ? team.name.eq(teamName) : null;
+	@Transactional(readOnly = true)
+	public long count(MemberSearchCondition condition) {
+		Long count = countQueries.fetchOne(em, condition);
+		return count != null ? count : 0L;
 	}
 
-	private BooleanExpression ageGoeEq(Integer ageGoe) {
-		return ageGoe != null ? member.age.goe(ageGoe) : null;
+	// team 조인은 teamName 조건이나 team 컬럼 select 가 있을때만 붙는다. (JoinEliminator)
+	JPAQuery<MemberTeamDto> searchQuery(MemberSearchCondition condition) {
+		JPAQuery<MemberTeamDto> query = queryFactory
+				.select(MEMBER_TEAM_DTO)
+				.from(member)
+				.where(searchCondition(condition));
+		return leftJoinIfUsed(query, member.team, team);
 	}
 
-	private BooleanExpression ageLoeEq(Integer ageLoe) {
-		return ageLoe != null ? member.age.loe(ageLoe) : null;
+	// teamName 조건이 없으면 select count(*) from member 로 끝난다.
+	JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+		JPAQuery<Long> query = queryFactory
+				.select(Wildcard.count)
+				.from(member)
+				.where(searchCondition(condition));
+		return leftJoinIfUsed(query, member.team, team);
 	}
 
 }
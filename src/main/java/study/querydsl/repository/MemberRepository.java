@@ -1,6 +1,8 @@
 package study.querydsl.repository;
 
 import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import study.querydsl.entity.Member;
@@ -10,4 +12,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
 	List<Member> findByUsername(String username);
 
+	// 메서드 이름으로 만든 검색 / 조건이 늘어날수록 이름이 길어져서 동적 조건은 Querydsl 로 한다.
+	List<Member> findByTeam_NameAndAgeBetween(String teamName, int ageGoe, int ageLoe);
+
+	Page<Member> findByTeam_NameAndAgeBetween(String teamName, int ageGoe, int ageLoe, Pageable pageable);
+
 }
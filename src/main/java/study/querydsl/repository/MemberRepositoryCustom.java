@@ -1,15 +1,31 @@
 package study.querydsl.repository;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.MemberCursorResult;
+import study.querydsl.dto.MemberFieldRow;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.MemberFields;
 
 public interface MemberRepositoryCustom {
 	List<MemberTeamDto> search(MemberSearchCondition condition);
 	Page<MemberTeamDto> searchSimple(MemberSearchCondition condition, Pageable pageable);
 	Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable);
+	Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+	MemberCursorResult searchByCursor(MemberSearchCondition condition, String cursor, int size);
+	List<MemberFieldRow> searchFields(MemberSearchCondition condition, MemberFields fields);
+	Page<MemberFieldRow> searchFields(MemberSearchCondition condition, MemberFields fields, Pageable pageable);
+
+	// 조건마다 결과 목록 (conditions 순서대로) / 조건들을 or 로 묶은 쿼리 한번으로 읽고 메모리에서 나눈다
+	List<List<MemberTeamDto>> searchBatch(List<MemberSearchCondition> conditions);
+
+	// 별도 스레드에서 읽기 전용 트랜잭션으로 돈다 / cancel() 이나 timeout 이면 돌고있는 쿼리도 취소 (AsyncQueryExecutor)
+	CompletableFuture<List<MemberTeamDto>> searchAsync(MemberSearchCondition condition);
+	CompletableFuture<Page<MemberTeamDto>> searchComplexAsync(MemberSearchCondition condition, Pageable pageable);
 
 
 }
@@ -1,34 +1,112 @@
 package study.querydsl.repository;
 
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.JoinEliminator.leftJoinIfUsed;
+import static study.querydsl.repository.support.MemberSearchPredicates.matches;
+import static study.querydsl.repository.support.MemberSearchPredicates.searchCondition;
+import static study.querydsl.repository.support.MemberSort.orderBy;
 
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberCursorResult;
+import study.querydsl.dto.MemberFieldRow;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.AsyncQueryExecutor;
+import study.querydsl.repository.support.MemberFields;
+import study.querydsl.repository.support.PageQueryExecutor;
+import study.querydsl.repository.support.QueryMetrics;
+import study.querydsl.repository.support.ShapeQueryCache;
 
 // 이름을 MemberRepository + Impl 해줘야한다.
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+	static final int MAX_BATCH_CONDITIONS = 50;
+	static final int MAX_CURSOR_SIZE = 2000; // Pageable 의 max-page-size 기본값과 같다
+
+	private final EntityManager em;
 	private final JPAQueryFactory queryFactory;
+	private final MemberCountCache memberCountCache;
+	private final PageQueryExecutor pageQueryExecutor;
+	private final QueryMetrics queryMetrics;
+	private final AsyncQueryExecutor asyncQueryExecutor;
+
+	// 정렬 / 페이징 / 커서가 없는 search 만 조건 모양별로 JPQL 을 캐시한다. (ShapeQueryCache)
+	private final ShapeQueryCache<MemberTeamDto> searchQueries = new ShapeQueryCache<>(this::searchQuery);
 
-	public MemberRepositoryImpl(EntityManager em) {
+	public MemberRepositoryImpl(EntityManager em, MemberCountCache memberCountCache,
+			PageQueryExecutor pageQueryExecutor, QueryMetrics queryMetrics, AsyncQueryExecutor asyncQueryExecutor) {
+		this.em = em;
 		this.queryFactory = new JPAQueryFactory(em);
+		this.memberCountCache = memberCountCache;
+		this.pageQueryExecutor = pageQueryExecutor;
+		this.queryMetrics = queryMetrics;
+		this.asyncQueryExecutor = asyncQueryExecutor;
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> search(MemberSearchCondition condition) {
-		return queryFactory
+		return searchQueries.fetch(em, condition);
+	}
+
+	private JPAQuery<MemberTeamDto> searchQuery(MemberSearchCondition condition) {
+		JPAQuery<MemberTeamDto> query = queryFactory
+				.select(new QMemberTeamDto(
+						member.id.as("memberId"),
+						member.username,
+						member.age,
+						team.id.as("teamId"),
+						team.name.as("teamName")
+				))
+				.from(member)
+				.where(searchCondition(condition));
+		return leftJoinIfUsed(query, member.team, team); // team 을 쓰는 곳이 있을때만 조인
+	}
+
+	// 대시보드가 조건만 바꿔서 수십번 부르던걸 한번에 / 커넥션 한번 빌리고 쿼리 한번
+	// where (조건1) or (조건2) ... 로 읽고 행마다 어느 조건에 맞는지 메모리에서 다시 본다.
+	// 같은 조건은 한번만 넣고 결과를 같이 쓴다. 조건이 하나라도 비어있으면 전체를 읽으니 그대로 돌려준다.
+	@Override
+	@Transactional(readOnly = true)
+	public List<List<MemberTeamDto>> searchBatch(List<MemberSearchCondition> conditions) {
+		if (conditions.size() > MAX_BATCH_CONDITIONS) {
+			throw new IllegalArgumentException("한번에 검색할 수 있는 조건은 " + MAX_BATCH_CONDITIONS + "개까지입니다: " + conditions.size());
+		}
+		Map<MemberSearchCondition, List<MemberTeamDto>> results = new LinkedHashMap<>();
+		List<Predicate> predicates = new ArrayList<>();
+		for (MemberSearchCondition condition : conditions) {
+			MemberSearchCondition normalized = condition.normalize();
+			if (results.putIfAbsent(normalized, new ArrayList<>()) == null) {
+				predicates.add(ExpressionUtils.allOf(searchCondition(normalized)));
+			}
+		}
+		if (results.isEmpty()) {
+			return List.of();
+		}
+
+		JPAQuery<MemberTeamDto> query = queryFactory
 				.select(new QMemberTeamDto(
 						member.id.as("memberId"),
 						member.username,
@@ -37,20 +115,37 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 						team.name.as("teamName")
 				))
 				.from(member)
-				.leftJoin(member.team, team)
-				.where(
-						usernameEq(condition.getUsername()),
-						teamNameEq(condition.getTeamName()),
-						ageGoeEq(condition.getAgeGoe()),
-						ageLoeEq(condition.getAgeLoe())
-				)
-				.fetch();
+				.where(predicates.contains(null) ? null : ExpressionUtils.anyOf(predicates)); // null 은 조건 없음
+		for (MemberTeamDto row : leftJoinIfUsed(query, member.team, team).fetch()) {
+			results.forEach((condition, rows) -> {
+				if (matches(condition, row)) {
+					rows.add(row);
+				}
+			});
+		}
+		return conditions.stream().map(condition -> results.get(condition.normalize())).toList();
 	}
 
 	@Override
+	public CompletableFuture<List<MemberTeamDto>> searchAsync(MemberSearchCondition condition) {
+		return asyncQueryExecutor.submit(() -> search(condition));
+	}
+
+	@Override
+	public CompletableFuture<Page<MemberTeamDto>> searchComplexAsync(MemberSearchCondition condition, Pageable pageable) {
+		return asyncQueryExecutor.submit(() -> searchComplex(condition, pageable));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
 	public Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable) {
+		return queryMetrics.record("MemberRepositoryImpl.searchComplex", condition, pageable,
+				call -> searchComplex(condition, pageable, call));
+	}
+
+	private Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable, QueryMetrics.Call call) {
 		// 데이터 조회 쿼리 (페이징 적용)
-		List<MemberTeamDto> content = queryFactory
+		JPAQuery<MemberTeamDto> contentQuery = queryFactory
 				.select(new QMemberTeamDto(
 						member.id.as("memberId"),
 						member.username,
@@ -59,16 +154,11 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 						team.name.as("teamName")
 				))
 				.from(member)
-				.leftJoin(member.team, team)
-				.where(
-						usernameEq(condition.getUsername()),
-						teamNameEq(condition.getTeamName()),
-						ageGoeEq(condition.getAgeGoe()),
-						ageLoeEq(condition.getAgeLoe())
-				)
+				.where(searchCondition(condition))
+				.orderBy(orderBy(pageable.getSort())) // ?sort=age,desc / 인덱스 있는 항목만 (MemberSort)
 				.offset(pageable.getOffset()) // 몇개를 넘기고 가져올건가
-				.limit(pageable.getPageSize()) // 몇개씩 가져올건가
-				.fetch();
+				.limit(pageable.getPageSize()); // 몇개씩 가져올건가
+		leftJoinIfUsed(contentQuery, member.team, team); // teamName 으로 정렬해도 조인이 붙는다
 
 		// count 쿼리 (조건에 부합하는 로우의 총 개수를 얻는 것이기 때문에 페이징 미적용)
 //		Long total = queryFactory
@@ -84,19 +174,23 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 //				)
 //				.fetchOne();
 
-		JPAQuery<Long> countQuery = queryFactory
-				.select(member.count()) // SQL 상으로는 count(member.id)와 동일
-				.from(member)
-				.leftJoin(member.team, team) // 카운트할때는 조인이 필요없는경우도 있다. 이 방법을 사용하면 카운트쿼리를 최적화 할수있다.
-				// 카운트쿼리를 하고 없으면 content 조회를 안하거나 그런 최적화도 가능 / 잘쓰면 성능을 아주 최적화할수있음
-				.where(
-						usernameEq(condition.getUsername()),
-						teamNameEq(condition.getTeamName()),
-						ageGoeEq(condition.getAgeGoe()),
-						ageLoeEq(condition.getAgeLoe())
-				);
-
-		return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+//		JPAQuery<Long> countQuery = queryFactory
+//				.select(member.count()) // SQL 상으로는 count(member.id)와 동일
+//				.from(member)
+//				.leftJoin(member.team, team) // 카운트할때는 조인이 필요없는경우도 있다. 이 방법을 사용하면 카운트쿼리를 최적화 할수있다.
+//				// 카운트쿼리를 하고 없으면 content 조회를 안하거나 그런 최적화도 가능 / 잘쓰면 성능을 아주 최적화할수있음
+//				.where(
+//						usernameEq(condition.getUsername()),
+//						teamNameEq(condition.getTeamName()),
+//						ageGoeEq(condition.getAgeGoe()),
+//						ageLoeEq(condition.getAgeLoe())
+//				);
+//		return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+
+		// count 쿼리는 페이지마다 똑같이 나가니 검색조건별로 캐시해둔걸 쓴다. (MemberQueryRepository.count)
+		// teamName 조건이 없으면 team 조인 없이 select count(*) from member 로 센다.
+		// 캐시에 없어서 DB 에서 세야하면 content 쿼리와 동시에 돌린다.
+		return page(contentQuery, condition, pageable, call);
 //		return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchOne());
 //		return new PageImpl<>(content, pageable, total); // PageImpl 이 Page 의 구현체임
 
@@ -105,25 +199,115 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 		//마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함, 더 정확히는 마지막 페이지 이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때)
 	}
 
+	private <T> Page<T> page(JPAQuery<T> contentQuery, MemberSearchCondition condition, Pageable pageable,
+			QueryMetrics.Call call) {
+		if (memberCountCache.contains(condition)) {
+			return PageableExecutionUtils.getPage(contentQuery.fetch(), pageable, () -> memberCountCache.get(condition));
+		}
+		LongSupplier count = () -> memberCountCache.get(condition);
+		return pageQueryExecutor.getPage(contentQuery::fetch, pageable, call != null ? call.count(count) : count);
+	}
+
+	// ?fields= 로 고른 컬럼만 select / team 컬럼을 안고르면 조인도 안한다
 	@Override
-	public Page<MemberTeamDto> searchSimple(MemberSearchCondition condition, Pageable pageable) {
-		// 심플은 이제 없어 무조건 카운트랑 콘텐트랑 나눠서 해야해
-		return null;
+	@Transactional(readOnly = true)
+	public List<MemberFieldRow> searchFields(MemberSearchCondition condition, MemberFields fields) {
+		JPAQuery<MemberFieldRow> query = queryFactory
+				.select(fields)
+				.from(member)
+				.where(searchCondition(condition));
+		return leftJoinIfUsed(query, member.team, team).fetch();
 	}
 
-	private BooleanExpression usernameEq(String username) {
-		return hasText(username) ? member.username.eq(username) : null;
+	@Override
+	@Transactional(readOnly = true)
+	public Page<MemberFieldRow> searchFields(MemberSearchCondition condition, MemberFields fields, Pageable pageable) {
+		JPAQuery<MemberFieldRow> contentQuery = queryFactory
+				.select(fields)
+				.from(member)
+				.where(searchCondition(condition))
+				.orderBy(orderBy(pageable.getSort()))
+				.offset(pageable.getOffset())
+				.limit(pageable.getPageSize());
+		leftJoinIfUsed(contentQuery, member.team, team);
+		return queryMetrics.record("MemberRepositoryImpl.searchFields", condition, pageable,
+				call -> page(contentQuery, condition, pageable, call));
 	}
 
-	private BooleanExpression teamNameEq(String teamName) {
-		return hasText(teamName) ? team.name.eq(teamName) : null;
+	// 무한스크롤처럼 전체 개수가 필요없으면 count 쿼리를 아예 안날린다.
+	// pageSize + 1 개를 가져와서 하나가 더 있으면 다음 페이지가 있는것
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+		JPAQuery<MemberTeamDto> query = queryFactory
+				.select(new QMemberTeamDto(
+						member.id.as("memberId"),
+						member.username,
+						member.age,
+						team.id.as("teamId"),
+						team.name.as("teamName")
+				))
+				.from(member)
+				.where(searchCondition(condition))
+				.orderBy(orderBy(pageable.getSort()))
+				.offset(pageable.getOffset())
+				.limit(pageable.getPageSize() + 1);
+		List<MemberTeamDto> content = leftJoinIfUsed(query, member.team, team).fetch();
+
+		boolean hasNext = content.size() > pageable.getPageSize();
+		if (hasNext) {
+			content = content.subList(0, pageable.getPageSize());
+		}
+		return new SliceImpl<>(content, pageable, hasNext);
 	}
 
-	private BooleanExpression ageGoeEq(Integer ageGoe) {
-		return ageGoe != null ? member.age.goe(ageGoe) : null;
+	// offset 페이징은 앞 페이지 row 를 전부 읽고 버리기 때문에 페이지가 깊어질수록 느려진다.
+	// 키셋 페이징은 마지막 row 의 (age, id) 다음부터 읽어서 몇번째 페이지든 비용이 같다.
+	@Override
+	@Transactional(readOnly = true)
+	public MemberCursorResult searchByCursor(MemberSearchCondition condition, String cursor, int requestedSize) {
+		if (requestedSize < 1) {
+			throw new IllegalArgumentException("size 는 1 이상이어야 합니다: " + requestedSize);
+		}
+		int size = Math.min(requestedSize, MAX_CURSOR_SIZE); // 너무 크면 잘라서 준다 (Pageable 과 같게)
+		JPAQuery<MemberTeamDto> query = queryFactory
+				.select(new QMemberTeamDto(
+						member.id.as("memberId"),
+						member.username,
+						member.age,
+						team.id.as("teamId"),
+						team.name.as("teamName")
+				))
+				.from(member)
+				.where(searchCondition(condition))
+				.where(afterCursor(MemberCursor.decode(cursor)))
+				.orderBy(member.age.asc(), member.id.asc()) // 커서와 같은 순서로 정렬해야한다. id 는 동률 처리용
+				.limit(size + 1); // 하나 더 가져와서 다음 페이지가 있는지 본다
+		List<MemberTeamDto> content = leftJoinIfUsed(query, member.team, team).fetch();
+
+		boolean hasNext = content.size() > size;
+		if (hasNext) {
+			content = content.subList(0, size);
+		}
+		String nextCursor = hasNext ? MemberCursor.of(content.get(content.size() - 1)).encode() : null;
+		return new MemberCursorResult(content, nextCursor, hasNext);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Page<MemberTeamDto> searchSimple(MemberSearchCondition condition, Pageable pageable) {
+		// 심플은 이제 없어 무조건 카운트랑 콘텐트랑 나눠서 해야해
+		return null;
 	}
 
-	private BooleanExpression ageLoeEq(Integer ageLoe) {
-		return ageLoe != null ? member.age.loe(ageLoe) : null;
+	// (age, id) > (cursor.age, cursor.id)
+	// 앞에 age >= ? 를 따로 걸어줘야 or 조건이 있어도 (age, member_id) 인덱스로 범위 탐색을 한다.
+	private BooleanExpression afterCursor(MemberCursor cursor) {
+		if (cursor == null) {
+			return null;
+		}
+		return member.age.goe(cursor.getAge())
+				.and(member.age.gt(cursor.getAge()).or(member.id.gt(cursor.getMemberId())));
 	}
+
 }
@@ -0,0 +1,110 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.hibernate.Session;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 검색을 별도 스레드에서 읽기 전용 트랜잭션으로 돌리고 CompletableFuture 로 돌려준다.
+// 서로 상관없는 검색 여러개를 동시에 날리고 한번에 기다리는 용도 (searchAsync, searchComplexAsync)
+//
+// - 스레드 수와 대기열 크기가 정해져 있고 대기열이 차면 바로 RejectedExecutionException 으로 실패한다
+//   지표는 executor.active / executor.queued / executor.completed {name=memberAsyncQuery}
+// - timeout 이 지나거나 호출한쪽에서 cancel() 하면 아직 대기열에 있는건 안돌리고,
+//   돌고 있는건 Session.cancelQuery() 로 JDBC Statement.cancel() 까지 보낸다.
+// - 트랜잭션 timeout 도 같이 걸어서 Hibernate 가 Statement.setQueryTimeout 을 건다 (초 단위, 올림)
+// 읽기 전용 트랜잭션이라 페이징 count 는 PageQueryExecutor 스레드에서 따로 읽기 전용 트랜잭션을 열어서 돈다.
+// 커넥션을 스레드 수만큼 더 쓰니 threads 는 커넥션 풀보다 넉넉히 작게 잡는다.
+@Component
+public class AsyncQueryExecutor implements DisposableBean {
+
+	private final EntityManager em;
+	private final TransactionTemplate transactionTemplate;
+	private final ThreadPoolExecutor threadPool;
+	private final ExecutorService executor;
+	private final Duration timeout;
+
+	public AsyncQueryExecutor(EntityManager em, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+			@Value("${member.async-query.threads:4}") int threads,
+			@Value("${member.async-query.queue-capacity:100}") int queueCapacity,
+			@Value("${member.async-query.timeout:5s}") Duration timeout) {
+		this.em = em;
+		this.timeout = timeout;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.transactionTemplate.setTimeout((int) Math.max(1, (timeout.toMillis() + 999) / 1000));
+		this.threadPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("member-async-"));
+		this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, "memberAsyncQuery");
+	}
+
+	public <T> CompletableFuture<T> submit(Supplier<T> query) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		AtomicReference<Session> running = new AtomicReference<>();
+		try {
+			executor.execute(() -> run(query, future, running));
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+			return future;
+		}
+		future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		future.whenComplete((result, e) -> {
+			if (e instanceof CancellationException || e instanceof TimeoutException) {
+				cancel(running.get());
+			}
+		});
+		return future;
+	}
+
+	private <T> void run(Supplier<T> query, CompletableFuture<T> future, AtomicReference<Session> running) {
+		if (future.isDone()) { // 대기열에서 기다리는 동안 취소되거나 시간이 다 됐다
+			return;
+		}
+		try {
+			T result = transactionTemplate.execute(status -> {
+				running.set(em.unwrap(Session.class)); // 이 트랜잭션에 묶인 세션
+				try {
+					return query.get();
+				} finally {
+					running.set(null);
+				}
+			});
+			future.complete(result);
+		} catch (Throwable e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	// 이미 끝났거나 세션이 닫혔으면 취소할게 없다
+	private static void cancel(Session session) {
+		if (session == null) {
+			return;
+		}
+		try {
+			session.cancelQuery();
+		} catch (RuntimeException ignored) {
+		}
+	}
+
+	@Override
+	public void destroy() {
+		threadPool.shutdownNow();
+	}
+}
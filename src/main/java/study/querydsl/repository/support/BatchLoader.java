@@ -0,0 +1,52 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+
+// 조회 결과에 달린 지연로딩 프록시(member.team 같은 ManyToOne)를 한번에 초기화한다.
+// 프록시 id 를 모아서 where id in (...) 으로 읽고 나면 이후 getTeam().getName() 은 SQL 없이 영속성 컨텍스트에서 꺼낸다.
+// 2차 캐시나 영속성 컨텍스트에 이미 있는 엔티티는 DB 에서 다시 읽지 않는다. (Session.byMultipleIds)
+// 설정(hibernate.default_batch_fetch_size)만으로도 첫 프록시를 건드릴때 묶어서 읽지만,
+// 이건 화면에서 어떤 연관관계를 쓸지 아는 쪽이 미리 명시적으로 불러둘때 쓴다.
+public final class BatchLoader {
+
+	// in 절 하나에 넣는 id 수 / DB 마다 in 절 길이 제한이 있어서 넘으면 나눠서 보낸다
+	private static final int BATCH_SIZE = 1000;
+
+	private BatchLoader() {
+	}
+
+	public static <S> List<S> load(EntityManager em, List<S> sources, Function<S, ?> association) {
+		List<HibernateProxy> pending = new ArrayList<>();
+		Set<Object> ids = new LinkedHashSet<>();
+		Class<?> type = null;
+		for (S source : sources) {
+			if (association.apply(source) instanceof HibernateProxy proxy && !Hibernate.isInitialized(proxy)) {
+				LazyInitializer initializer = proxy.getHibernateLazyInitializer();
+				type = initializer.getPersistentClass();
+				pending.add(proxy);
+				ids.add(initializer.getInternalIdentifier());
+			}
+		}
+		if (pending.isEmpty()) {
+			return sources;
+		}
+
+		em.unwrap(Session.class)
+				.byMultipleIds(type)
+				.withBatchSize(BATCH_SIZE)
+				.multiLoad(new ArrayList<>(ids));
+		for (HibernateProxy proxy : pending) {
+			Hibernate.initialize(proxy); // 방금 읽은 엔티티에 연결만 한다 (SQL 안나감)
+		}
+		return sources;
+	}
+}
@@ -0,0 +1,12 @@
+package study.querydsl.repository.support;
+
+// 청크 단위 벌크 연산 진행상황 / 청크가 커밋될때마다 불린다.
+@FunctionalInterface
+public interface BulkProgressListener {
+
+	BulkProgressListener NONE = (chunks, lastId, affected) -> {
+	};
+
+	// chunks: 지금까지 커밋한 청크 수, lastId: 여기까지 처리한 id, affected: 지금까지 바뀐 row 수
+	void onChunk(int chunks, long lastId, long affected);
+}
@@ -0,0 +1,143 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.MapExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.Wildcard;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// content 쿼리의 메타데이터로 count 쿼리를 만든다. (deprecated 된 fetchCount 대신)
+// - order by, offset / limit, 페치조인은 뺀다
+// - where / 다른 조인 조건에서 안쓰는 left join 은 뺀다 (left join 은 root row 를 줄이지 않는다)
+// - root 엔티티를 select 하면: 남은 조인에 to-many 가 있거나 distinct 쿼리면 count(distinct root.id), 아니면 count(*)
+// - 컬럼 / DTO 를 select 하면 조인으로 늘어난 row 가 그대로 결과라서
+//   select 에서 쓰는 조인, to-many 조인은 남기고 count(*). distinct 면 select 한 컬럼을 count(distinct)
+// group by / having 쿼리, 여러 컬럼 distinct 쿼리는 여기서 못만든다. count 쿼리를 따로 넘겨야 한다.
+public final class CountQueryBuilder {
+
+	private CountQueryBuilder() {
+	}
+
+	public static JPAQuery<Long> build(EntityManager em, JPAQuery<?> content) {
+		QueryMetadata source = content.getMetadata();
+		if (!source.getGroupBy().isEmpty() || source.getHaving() != null) {
+			throw new IllegalArgumentException("group by / having 쿼리는 count 쿼리를 따로 넘겨야 합니다: " + content);
+		}
+
+		Expression<?> projection = source.getProjection();
+		boolean rootProjection = projection == null || projection.equals(source.getJoins().get(0).getTarget());
+		Expression<?> distinctTarget = !rootProjection && source.isDistinct() ? distinctTarget(projection, content) : null;
+
+		List<JoinExpression> joins = requiredJoins(source, rootProjection);
+		DefaultQueryMetadata metadata = new DefaultQueryMetadata();
+		boolean toMany = source.isDistinct();
+		for (JoinExpression join : joins) {
+			metadata.addJoin(join.getType(), join.getTarget());
+			if (join.getCondition() != null) {
+				metadata.addJoinCondition(join.getCondition());
+			}
+			for (JoinFlag flag : join.getFlags()) {
+				if (!flag.equals(JPAQueryMixin.FETCH) && !flag.equals(JPAQueryMixin.FETCH_ALL_PROPERTIES)) {
+					metadata.addJoinFlag(flag);
+				}
+			}
+			toMany |= isToMany(join.getTarget());
+		}
+		if (source.getWhere() != null) {
+			metadata.addWhere(source.getWhere());
+		}
+		for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+			setParam(metadata, param.getKey(), param.getValue());
+		}
+
+		JPAQuery<?> count = new JPAQuery<>(em, metadata);
+		if (!rootProjection) {
+			return distinctTarget != null
+					? count.select(Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_DISTINCT_AGG, distinctTarget))
+					: count.select(Wildcard.count);
+		}
+		return toMany ? count.select(idOf(em, (EntityPath<?>) joins.get(0).getTarget()).countDistinct())
+				: count.select(Wildcard.count);
+	}
+
+	// 뒤에서부터 보면서 where 와 남은 조인들이 안쓰는 left join 을 지운다. (뒤 조인이 빠지면 앞 조인도 빠질 수 있다)
+	// root 엔티티가 아닌 걸 select 하면 select 에서 쓰는 조인, row 를 늘리는 to-many 조인도 남긴다.
+	private static List<JoinExpression> requiredJoins(QueryMetadata source, boolean rootProjection) {
+		List<JoinExpression> joins = source.getJoins();
+		List<JoinExpression> kept = new ArrayList<>();
+		for (int i = joins.size() - 1; i >= 0; i--) {
+			JoinExpression join = joins.get(i);
+			if (i == 0 || join.getType() != JoinType.LEFTJOIN || isUsed(alias(join.getTarget()), source, kept)
+					|| !rootProjection && (JoinEliminator.uses(source.getProjection(), alias(join.getTarget()))
+							|| isToMany(join.getTarget()))) {
+				kept.add(0, join);
+			}
+		}
+		return kept;
+	}
+
+	// select(member.age).distinct() -> count(distinct member.age). JPQL 은 여러 컬럼 count(distinct) 를 못한다.
+	private static Expression<?> distinctTarget(Expression<?> projection, JPAQuery<?> content) {
+		if (projection instanceof FactoryExpression<?>) {
+			throw new IllegalArgumentException("여러 컬럼 distinct 쿼리는 count 쿼리를 따로 넘겨야 합니다: " + content);
+		}
+		return projection instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS
+				? operation.getArg(0) : projection;
+	}
+
+	private static boolean isUsed(Path<?> alias, QueryMetadata source, List<JoinExpression> kept) {
+		if (alias == null || JoinEliminator.uses(source.getWhere(), alias)) {
+			return true;
+		}
+		for (JoinExpression join : kept) {
+			if (JoinEliminator.uses(join.getTarget(), alias) || JoinEliminator.uses(join.getCondition(), alias)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// leftJoin(member.team, team) -> team / leftJoin(member.team) -> member.team
+	private static Path<?> alias(Expression<?> target) {
+		if (target instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+			return (Path<?>) operation.getArg(1);
+		}
+		return target instanceof Path<?> path ? path : null;
+	}
+
+	private static boolean isToMany(Expression<?> target) {
+		Expression<?> association = target instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS
+				? operation.getArg(0) : target;
+		return association instanceof CollectionExpression<?, ?> || association instanceof MapExpression<?, ?>;
+	}
+
+	private static PathBuilder<?> idOf(EntityManager em, EntityPath<?> root) {
+		EntityType<?> entityType = em.getMetamodel().entity(root.getType());
+		String idName = entityType.getId(entityType.getIdType().getJavaType()).getName();
+		return new PathBuilder<>(root.getType(), root.getMetadata()).get(idName);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> void setParam(QueryMetadata metadata, ParamExpression<T> param, Object value) {
+		metadata.setParam(param, (T) value);
+	}
+}
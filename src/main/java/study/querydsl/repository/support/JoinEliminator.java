@@ -0,0 +1,95 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.jpa.impl.JPAQuery;
+import java.util.Collection;
+
+// 조인을 미리 걸어두지 않고, 쿼리를 다 만든 다음 select / where / order by / group by / having 에서
+// 조인 대상 별칭(ex. team)을 실제로 쓰는 경우에만 leftJoin 을 붙여준다.
+// member.team.id 처럼 FK 만 쓰는건 root 가 member 라서 조인이 필요없다.
+// ManyToOne left join 은 row 수를 바꾸지 않으니 빼도 결과(특히 count)가 같다.
+public final class JoinEliminator {
+
+	private JoinEliminator() {
+	}
+
+	// 이미 같은 별칭으로 조인을 걸어둔 쿼리에는 쓰면 안된다.
+	public static <T, P> JPAQuery<T> leftJoinIfUsed(JPAQuery<T> query, EntityPath<P> association, Path<P> alias) {
+		if (uses(query.getMetadata(), alias)) {
+			query.leftJoin(association, alias);
+		}
+		return query;
+	}
+
+	public static boolean uses(QueryMetadata metadata, Path<?> alias) {
+		return uses(metadata.getProjection(), alias)
+				|| uses(metadata.getWhere(), alias)
+				|| usesAll(metadata.getGroupBy(), alias)
+				|| uses(metadata.getHaving(), alias)
+				|| metadata.getOrderBy().stream().anyMatch(order -> uses(order, alias));
+	}
+
+	private static boolean uses(OrderSpecifier<?> order, Path<?> alias) {
+		return uses(order.getTarget(), alias);
+	}
+
+	static boolean uses(Expression<?> expr, Path<?> alias) {
+		return expr != null && Boolean.TRUE.equals(expr.accept(AliasUsage.INSTANCE, alias));
+	}
+
+	private static boolean usesAll(Collection<? extends Expression<?>> exprs, Path<?> alias) {
+		return exprs.stream().anyMatch(expr -> uses(expr, alias));
+	}
+
+	private enum AliasUsage implements Visitor<Boolean, Path<?>> {
+		INSTANCE;
+
+		@Override
+		public Boolean visit(Constant<?> expr, Path<?> alias) {
+			return false;
+		}
+
+		@Override
+		public Boolean visit(FactoryExpression<?> expr, Path<?> alias) {
+			return usesAll(expr.getArgs(), alias);
+		}
+
+		@Override
+		public Boolean visit(Operation<?> expr, Path<?> alias) {
+			return usesAll(expr.getArgs(), alias);
+		}
+
+		@Override
+		public Boolean visit(ParamExpression<?> expr, Path<?> alias) {
+			return false;
+		}
+
+		@Override
+		public Boolean visit(Path<?> expr, Path<?> alias) {
+			return expr.getRoot().equals(alias);
+		}
+
+		// 서브쿼리에서 바깥 별칭을 참조하는 경우
+		@Override
+		public Boolean visit(SubQueryExpression<?> expr, Path<?> alias) {
+			return JoinEliminator.uses(expr.getMetadata(), alias);
+		}
+
+		@Override
+		public Boolean visit(TemplateExpression<?> expr, Path<?> alias) {
+			return expr.getArgs().stream()
+					.anyMatch(arg -> arg instanceof Expression<?> e && JoinEliminator.uses(e, alias));
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package study.querydsl.repository.support;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import study.querydsl.dto.MemberFieldRow;
+
+// ?fields=username,teamName -> select 절에 그 컬럼만 넣는 프로젝션
+// 허용하는 이름은 MemberTeamDto 와 같다. teamId 는 member.team_id(FK) 로 읽어서 teamName 을 안고르면 team 조인이 빠진다.
+public final class MemberFields extends FactoryExpressionBase<MemberFieldRow> {
+
+	private static final Map<String, Expression<?>> SELECTABLE = Map.of(
+			"memberId", member.id,
+			"username", member.username,
+			"age", member.age,
+			"teamId", member.team.id,
+			"teamName", team.name
+	);
+
+	private final String[] names;
+	private final List<Expression<?>> args;
+
+	private MemberFields(String[] names, List<Expression<?>> args) {
+		super(MemberFieldRow.class);
+		this.names = names;
+		this.args = args;
+	}
+
+	// 중복은 한번만, 순서는 요청한 그대로
+	public static MemberFields of(String fields) {
+		Map<String, Expression<?>> selected = new LinkedHashMap<>();
+		for (String field : fields.split(",")) {
+			String name = field.trim();
+			if (name.isEmpty()) {
+				continue;
+			}
+			Expression<?> expr = SELECTABLE.get(name);
+			if (expr == null) {
+				throw new IllegalArgumentException("조회할 수 없는 항목입니다: " + name
+						+ " (가능: memberId, username, age, teamId, teamName)");
+			}
+			selected.put(name, expr);
+		}
+		if (selected.isEmpty()) {
+			throw new IllegalArgumentException("fields 가 비어있습니다");
+		}
+		return new MemberFields(selected.keySet().toArray(String[]::new), List.copyOf(selected.values()));
+	}
+
+	public List<String> names() {
+		return List.of(names);
+	}
+
+	@Override
+	public List<Expression<?>> getArgs() {
+		return args;
+	}
+
+	@Override
+	public MemberFieldRow newInstance(Object... values) {
+		return new MemberFieldRow(names, values);
+	}
+
+	@Override
+	public <R, C> R accept(Visitor<R, C> v, C context) {
+		return v.visit(this, context);
+	}
+}
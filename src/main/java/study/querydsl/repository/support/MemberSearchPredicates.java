@@ -0,0 +1,105 @@
+package study.querydsl.repository.support;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+// MemberSearchCondition -> where 조건 / 리포지토리마다 복사해서 쓰던걸 한곳으로 모았다.
+// 조건 "모양"(shape)은 어떤 필드가 채워졌는지를 비트로 나타낸 값이다. 모양이 같으면 값만 다르고 JPQL 은 똑같다.
+public final class MemberSearchPredicates {
+
+	public static final int USERNAME = 1;
+	public static final int TEAM_NAME = 1 << 1;
+	public static final int AGE_GOE = 1 << 2;
+	public static final int AGE_LOE = 1 << 3;
+
+	private MemberSearchPredicates() {
+	}
+
+	public static BooleanExpression[] searchCondition(MemberSearchCondition condition) {
+		return new BooleanExpression[]{
+				usernameEq(condition.getUsername()),
+				teamNameEq(condition.getTeamName()),
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe())
+		};
+	}
+
+	public static BooleanExpression usernameEq(String username) {
+		return hasText(username) ? member.username.eq(username) : null;
+	}
+
+	public static BooleanExpression teamNameEq(String teamName) {
+		return hasText(teamName) ? team.name.eq(teamName) : null;
+	}
+
+	public static BooleanExpression ageGoe(Integer ageGoe) {
+		return ageGoe != null ? member.age.goe(ageGoe) : null;
+	}
+
+	public static BooleanExpression ageLoe(Integer ageLoe) {
+		return ageLoe != null ? member.age.loe(ageLoe) : null;
+	}
+
+	public static int shape(MemberSearchCondition condition) {
+		int shape = 0;
+		if (hasText(condition.getUsername())) {
+			shape |= USERNAME;
+		}
+		if (hasText(condition.getTeamName())) {
+			shape |= TEAM_NAME;
+		}
+		if (condition.getAgeGoe() != null) {
+			shape |= AGE_GOE;
+		}
+		if (condition.getAgeLoe() != null) {
+			shape |= AGE_LOE;
+		}
+		return shape;
+	}
+
+	// searchCondition() 을 메모리에서 평가 / 여러 조건을 or 로 묶어 한번에 읽은 결과를 조건별로 나눌때 쓴다
+	public static boolean matches(MemberSearchCondition condition, MemberTeamDto row) {
+		return (!hasText(condition.getUsername()) || condition.getUsername().equals(row.getUsername()))
+				&& (!hasText(condition.getTeamName()) || condition.getTeamName().equals(row.getTeamName()))
+				&& (condition.getAgeGoe() == null || row.getAge() >= condition.getAgeGoe())
+				&& (condition.getAgeLoe() == null || row.getAge() <= condition.getAgeLoe());
+	}
+
+	// 해당 모양의 JPQL 을 뽑아내기 위한 대표 조건
+	// Querydsl 은 같은 값이 두번 나오면 파라미터 하나로 합치기 때문에 값이 모두 달라야 한다. (sampleParameters() 로 값 -> 필드를 찾는다)
+	public static MemberSearchCondition sample(int shape) {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername((shape & USERNAME) != 0 ? "username" : null);
+		condition.setTeamName((shape & TEAM_NAME) != 0 ? "teamName" : null);
+		condition.setAgeGoe((shape & AGE_GOE) != 0 ? 1 : null);
+		condition.setAgeLoe((shape & AGE_LOE) != 0 ? 2 : null);
+		return condition;
+	}
+
+	// sample(shape) 의 값 -> 실제 조건에서 그 값을 꺼내는 함수 / ShapeQueryCache 가 JPQL 파라미터를 필드에 이어줄때 쓴다
+	public static Map<Object, Function<MemberSearchCondition, Object>> sampleParameters(int shape) {
+		MemberSearchCondition sample = sample(shape);
+		Map<Object, Function<MemberSearchCondition, Object>> parameters = new LinkedHashMap<>();
+		if ((shape & USERNAME) != 0) {
+			parameters.put(sample.getUsername(), MemberSearchCondition::getUsername);
+		}
+		if ((shape & TEAM_NAME) != 0) {
+			parameters.put(sample.getTeamName(), MemberSearchCondition::getTeamName);
+		}
+		if ((shape & AGE_GOE) != 0) {
+			parameters.put(sample.getAgeGoe(), MemberSearchCondition::getAgeGoe);
+		}
+		if ((shape & AGE_LOE) != 0) {
+			parameters.put(sample.getAgeLoe(), MemberSearchCondition::getAgeLoe);
+		}
+		return parameters;
+	}
+}
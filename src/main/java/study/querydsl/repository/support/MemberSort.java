@@ -0,0 +1,64 @@
+package study.querydsl.repository.support;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Sort;
+
+// Pageable 의 sort 파라미터 -> Querydsl order by
+// 인덱스가 있는 컬럼만 허용한다. 인덱스 없는 컬럼으로 정렬하면 페이지마다 전체를 읽어서 정렬(filesort)해야 한다.
+// - username : idx_member_username
+// - age      : idx_member_age_id (age, member_id)
+// - teamName : idx_team_name
+// - id       : PK
+// 같은 값이 여러건이면 페이지마다 순서가 바뀔 수 있으니 마지막에 id 를 붙인다. (방향은 마지막 정렬과 같게 해서 인덱스를 거꾸로 타도 되게)
+public final class MemberSort {
+
+	private static final Map<String, ComparableExpressionBase<?>> SORTABLE = Map.of(
+			"username", member.username,
+			"age", member.age,
+			"teamName", team.name,
+			"id", member.id,
+			"memberId", member.id
+	);
+
+	private MemberSort() {
+	}
+
+	public static OrderSpecifier<?>[] orderBy(Sort sort) {
+		if (sort.isUnsorted()) {
+			return new OrderSpecifier<?>[0];
+		}
+		List<OrderSpecifier<?>> orders = new ArrayList<>();
+		Order last = Order.ASC;
+		boolean hasId = false;
+		for (Sort.Order order : sort) {
+			ComparableExpressionBase<?> path = SORTABLE.get(order.getProperty());
+			if (path == null) {
+				throw new IllegalArgumentException("정렬할 수 없는 항목입니다: " + order.getProperty()
+						+ " (가능: username, age, teamName, id)");
+			}
+			last = order.isAscending() ? Order.ASC : Order.DESC;
+			orders.add(withNullHandling(order.isAscending() ? path.asc() : path.desc(), order.getNullHandling()));
+			hasId |= path == member.id;
+		}
+		if (!hasId) {
+			orders.add(last == Order.ASC ? member.id.asc() : member.id.desc());
+		}
+		return orders.toArray(OrderSpecifier<?>[]::new);
+	}
+
+	private static OrderSpecifier<?> withNullHandling(OrderSpecifier<?> order, Sort.NullHandling nullHandling) {
+		return switch (nullHandling) {
+			case NULLS_FIRST -> order.nullsFirst();
+			case NULLS_LAST -> order.nullsLast();
+			default -> order;
+		};
+	}
+}
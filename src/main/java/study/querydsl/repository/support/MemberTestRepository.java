@@ -1,22 +1,25 @@
 package study.querydsl.repository.support;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
 import java.util.List;
 
-import static org.springframework.util.StringUtils.isEmpty;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.JoinEliminator.leftJoinIfUsed;
+import static study.querydsl.repository.support.MemberSearchPredicates.searchCondition;
 
 @Repository
 public class MemberTestRepository extends Querydsl4RepositorySupport {
 
+	private final ShapeQueryCache<Member> searchQueries = new ShapeQueryCache<>(this::searchQuery);
+
 	public MemberTestRepository() {
 		super(Member.class);
 	}
@@ -32,64 +35,70 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
 				.fetch();
 	}
 
+	public List<Member> basicSelectFromReadOnly() {
+		return selectFromReadOnly(member)
+				.fetch();
+	}
+
+	public List<Member> loadTeams(List<Member> members) {
+		return batchLoad(members, Member::getTeam);
+	}
+
+	public List<Member> findByUsername(String username) {
+		return selectFrom(member)
+				.where(member.username.eq(username))
+				.fetch();
+	}
+
+	public List<Member> search(MemberSearchCondition condition) {
+		return searchQueries.fetch(getEntityManager(), condition);
+	}
+
+	private JPAQuery<Member> searchQuery(MemberSearchCondition condition) {
+		return selectFrom(member)
+				.leftJoin(member.team, team)
+				.where(searchCondition(condition));
+	}
+
 	public Page<Member> searchPageByApplyPage(MemberSearchCondition condition,
 			Pageable pageable) {
 		JPAQuery<Member> query = selectFrom(member)
 				.leftJoin(member.team, team)
-				.where(usernameEq(condition.getUsername()),
-						teamNameEq(condition.getTeamName()),
-						ageGoe(condition.getAgeGoe()),
-						ageLoe(condition.getAgeLoe()));
+				.where(searchCondition(condition));
+		JPAQuery<Long> countQuery = count(query); // teamName 조건이 없으면 team 조인 없이 센다
 		List<Member> content = getQuerydsl().applyPagination(pageable, query)
 				.fetch();
 		return PageableExecutionUtils.getPage(content, pageable,
-				query::fetchCount);
+				countQuery::fetchOne);
 	}
 
 	public Page<Member> applyPagination(MemberSearchCondition condition,
 			Pageable pageable) {
-		return applyPagination(pageable, contentQuery -> contentQuery
-				.selectFrom(member)
-				.leftJoin(member.team, team)
-				.where(usernameEq(condition.getUsername()),
-						teamNameEq(condition.getTeamName()),
-						ageGoe(condition.getAgeGoe()),
-						ageLoe(condition.getAgeLoe())));
+		return getQueryMetrics().record("MemberTestRepository.applyPagination", condition, pageable,
+				call -> applyPagination(pageable, call, contentQuery -> contentQuery
+						.selectFrom(member)
+						.leftJoin(member.team, team)
+						.where(searchCondition(condition))));
 	}
 
 	public Page<Member> applyPagination2(MemberSearchCondition condition,
 			Pageable pageable) {
-		return applyPagination(pageable, contentQuery -> contentQuery
+		// member 엔티티만 조회하니 teamName 조건이 없으면 content, count 모두 team 조인이 빠진다.
+		return applyPagination(pageable, contentQuery -> leftJoinIfUsed(contentQuery
 						.selectFrom(member)
-						.leftJoin(member.team, team)
-						.where(usernameEq(condition.getUsername()),
-								teamNameEq(condition.getTeamName()),
-								ageGoe(condition.getAgeGoe()),
-								ageLoe(condition.getAgeLoe())),
-				countQuery -> countQuery
+						.where(searchCondition(condition)), member.team, team),
+				countQuery -> leftJoinIfUsed(countQuery
 						.selectFrom(member)
-						.leftJoin(member.team, team)
-						.where(usernameEq(condition.getUsername()),
-								teamNameEq(condition.getTeamName()),
-								ageGoe(condition.getAgeGoe()),
-								ageLoe(condition.getAgeLoe()))
+						.where(searchCondition(condition)), member.team, team)
 		);
 	}
 
-
-	private BooleanExpression usernameEq(String username) {
-		return isEmpty(username) ? null : member.username.eq(username);
-	}
-
-	private BooleanExpression teamNameEq(String teamName) {
-		return isEmpty(teamName) ? null : team.name.eq(teamName);
-	}
-
-	private BooleanExpression ageGoe(Integer ageGoe) {
-		return ageGoe == null ? null : member.age.goe(ageGoe);
+	public Slice<Member> applySlicing(MemberSearchCondition condition,
+			Pageable pageable) {
+		return applySlicing(pageable, contentQuery -> contentQuery
+				.selectFrom(member)
+				.leftJoin(member.team, team)
+				.where(searchCondition(condition)));
 	}
 
-	private BooleanExpression ageLoe(Integer ageLoe) {
-		return ageLoe == null ? null : member.age.loe(ageLoe);
-	}
 }
@@ -0,0 +1,120 @@
+package study.querydsl.repository.support;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 페이징 content 쿼리와 count 쿼리를 동시에 돌린다.
+// count 는 별도 스레드에서 돌기 때문에 공유 EntityManager 가 새로 열리고 커넥션도 따로 쓴다.
+// content 는 호출한 스레드에서 그대로 돌고, 둘 다 끝나면 Page 를 만든다.
+//
+// 이런 경우는 기존처럼 순서대로 돈다.
+// - 쓰기 트랜잭션 안일때: 다른 커넥션에서는 아직 커밋 안된 데이터가 안보여서 count 가 틀어진다
+// - 동시에 돌고있는 count 가 max-concurrency 만큼 찼을때: 커넥션 풀을 다 잡아먹지 않도록
+//
+// 읽기 전용 트랜잭션 안에서 불리면 count 스레드도 읽기 전용 트랜잭션으로 돌린다.
+// 안그러면 count 만 트랜잭션 밖이라 읽기/쓰기 분리(ReadWriteRoutingDataSource)에서 content 는 replica, count 는 primary 로 간다.
+//
+// content 가 한 페이지도 안차서 count 가 필요없게 되면 미리 날린 count 는 버린다.
+// 커넥션 풀 크기(hikari 기본 10)는 최소 (동시 요청 수 + max-concurrency) 는 되어야 한다.
+@Component
+public class PageQueryExecutor implements DisposableBean {
+
+	private final boolean parallel;
+	private final Semaphore permits;
+	private final ExecutorService executor;
+	private final TransactionTemplate readOnlyTransaction;
+
+	public PageQueryExecutor(@Value("${member.page-query.parallel:true}") boolean parallel,
+			@Value("${member.page-query.max-concurrency:4}") int maxConcurrency,
+			@Value("${member.page-query.virtual-threads:false}") boolean virtualThreads,
+			PlatformTransactionManager transactionManager) {
+		this.parallel = parallel;
+		this.permits = new Semaphore(maxConcurrency);
+		this.executor = createExecutor(maxConcurrency, virtualThreads);
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+	}
+
+	public <T> Page<T> getPage(Supplier<List<T>> content, Pageable pageable, LongSupplier count) {
+		if (!parallel || writeTransactionActive() || !permits.tryAcquire()) {
+			return PageableExecutionUtils.getPage(content.get(), pageable, count);
+		}
+
+		boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive(); // 여기까지 왔으면 읽기 전용 트랜잭션
+		CompletableFuture<Long> countFuture;
+		try {
+			countFuture = CompletableFuture.supplyAsync(() -> {
+				try {
+					return readOnly ? readOnlyTransaction.execute(status -> count.getAsLong()) : count.getAsLong();
+				} finally {
+					permits.release(); // 취소돼도 쿼리가 실제로 끝나야 반납한다
+				}
+			}, executor);
+		} catch (RuntimeException e) { // 종료중이라 못받는 경우
+			permits.release();
+			return PageableExecutionUtils.getPage(content.get(), pageable, count);
+		}
+
+		List<T> result;
+		try {
+			result = content.get();
+		} catch (RuntimeException e) {
+			countFuture.cancel(false);
+			throw e;
+		}
+		Page<T> page = PageableExecutionUtils.getPage(result, pageable, () -> join(countFuture));
+		countFuture.cancel(false); // 안쓴 count 결과는 버린다 (이미 끝났으면 아무일도 없음)
+		return page;
+	}
+
+	// 읽기 전용 트랜잭션은 자기가 쓴게 없으니 다른 커넥션에서 세도 결과가 같다
+	private static boolean writeTransactionActive() {
+		return TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdown();
+	}
+
+	private static long join(CompletableFuture<Long> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	// 가상 스레드는 Java 21 이상에서만 있으니 리플렉션으로 찾아보고 없으면 일반 스레드풀을 쓴다.
+	// 어느쪽이든 동시에 도는 개수는 permits 로 제한된다.
+	private static ExecutorService createExecutor(int maxConcurrency, boolean virtualThreads) {
+		if (virtualThreads) {
+			try {
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException e) {
+				// Java 17 이면 여기로 온다
+			}
+		}
+		return Executors.newFixedThreadPool(maxConcurrency, new CustomizableThreadFactory("page-count-"));
+	}
+}
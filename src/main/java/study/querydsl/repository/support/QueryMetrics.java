@@ -0,0 +1,191 @@
+package study.querydsl.repository.support;
+
+import static study.querydsl.repository.support.MemberSearchPredicates.AGE_GOE;
+import static study.querydsl.repository.support.MemberSearchPredicates.AGE_LOE;
+import static study.querydsl.repository.support.MemberSearchPredicates.TEAM_NAME;
+import static study.querydsl.repository.support.MemberSearchPredicates.USERNAME;
+import static study.querydsl.repository.support.MemberSearchPredicates.shape;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.trace.JdbcStatementCounter;
+
+// 검색 메서드별 / 조건 모양별 지표 / /actuator/metrics/member.query?tag=method:searchComplex&tag=shape:teamName
+// - member.query            전체 걸린 시간
+// - member.query.rows       돌려준 row 수
+// - member.query.count      count 쿼리 시간 (DB 에서 셀때만)
+// - member.query.statements 실행한 JDBC statement 수
+// 태그는 method, shape(채워진 조건 필드), page(첫 페이지면 first, 그 뒤면 deep, 페이징 아니면 none),
+// size(페이지 크기 구간 le20 / le100 / le1000 / gt1000, 페이징 아니면 none)
+// 태그 조합마다 시계열이 생기니 percentile 히스토그램은 histogram-methods 에 적은 메서드만 켠다. (버킷마다 시계열이 또 생긴다)
+// 크기는 고정 구간으로만 나눠서 메서드당 시계열이 모양 16가지 x (페이징 아님 1 + 페이지 2 x 크기 4) 를 넘지 않는다.
+// 호출마다 태그를 만들지 않도록 미터를 배열에 캐시해두고 인덱스로 꺼낸다.
+@Component
+public class QueryMetrics {
+
+	private static final int SHAPES = 1 << 4;
+	private static final String[] PAGE_TAGS = {"none", "first", "deep"};
+	private static final String[] SIZE_TAGS = {"none", "le20", "le100", "le1000", "gt1000"};
+	private static final int PAGINGS = PAGE_TAGS.length * SIZE_TAGS.length;
+
+	private final MeterRegistry meterRegistry;
+	private final Set<String> histogramMethods;
+	private final Map<String, AtomicReferenceArray<Meters>> metersByMethod = new ConcurrentHashMap<>();
+
+	public QueryMetrics(MeterRegistry meterRegistry,
+			@Value("${member.query-metrics.histogram-methods:}") Set<String> histogramMethods) {
+		this.meterRegistry = meterRegistry;
+		this.histogramMethods = histogramMethods;
+	}
+
+	public <T> T record(String method, MemberSearchCondition condition, Pageable pageable, Function<Call, T> query) {
+		Meters meters = meters(method, shape(condition), pageTag(pageable), sizeTag(pageable));
+		Call call = new Call(meters);
+		long start = System.nanoTime();
+		long statements = JdbcStatementCounter.current();
+		try {
+			T result = query.apply(call);
+			meters.rows.record(rows(result));
+			return result;
+		} finally {
+			meters.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			meters.statements.record(JdbcStatementCounter.current() - statements + call.otherThreadStatements.get());
+		}
+	}
+
+	private Meters meters(String method, int shape, int pageTag, int sizeTag) {
+		AtomicReferenceArray<Meters> meters = metersByMethod.computeIfAbsent(method,
+				m -> new AtomicReferenceArray<>(SHAPES * PAGINGS));
+		int index = shape * PAGINGS + pageTag * SIZE_TAGS.length + sizeTag;
+		Meters found = meters.get(index);
+		if (found == null) {
+			Tags tags = Tags.of("method", method, "shape", shapeTag(shape),
+					"page", PAGE_TAGS[pageTag], "size", SIZE_TAGS[sizeTag]);
+			found = new Meters(meterRegistry, tags, histogramMethods.contains(method));
+			meters.compareAndSet(index, null, found); // 레지스트리가 같은 태그면 같은 미터를 주니 경쟁해도 상관없다
+		}
+		return found;
+	}
+
+	private static int rows(Object result) {
+		if (result instanceof Collection<?> collection) {
+			return collection.size();
+		}
+		if (result instanceof Slice<?> slice) {
+			return slice.getNumberOfElements();
+		}
+		return 0;
+	}
+
+	// offset 이 커질수록 느려지니 첫 페이지와 그 뒤만 나눈다
+	private static int pageTag(Pageable pageable) {
+		if (pageable == null || pageable.isUnpaged()) {
+			return 0;
+		}
+		return pageable.getOffset() == 0 ? 1 : 2;
+	}
+
+	// 페이지 크기는 클라이언트가 정하니 값 그대로 태그로 쓰지 않고 구간으로 묶는다
+	static int sizeTag(Pageable pageable) {
+		if (pageable == null || pageable.isUnpaged()) {
+			return 0;
+		}
+		int size = pageable.getPageSize();
+		if (size <= 20) {
+			return 1;
+		}
+		if (size <= 100) {
+			return 2;
+		}
+		return size <= 1000 ? 3 : 4;
+	}
+
+	static String shapeTag(int shape) {
+		if (shape == 0) {
+			return "none";
+		}
+		StringJoiner joiner = new StringJoiner("+");
+		if ((shape & USERNAME) != 0) {
+			joiner.add("username");
+		}
+		if ((shape & TEAM_NAME) != 0) {
+			joiner.add("teamName");
+		}
+		if ((shape & AGE_GOE) != 0) {
+			joiner.add("ageGoe");
+		}
+		if ((shape & AGE_LOE) != 0) {
+			joiner.add("ageLoe");
+		}
+		return joiner.toString();
+	}
+
+	// 호출 하나 / count 쿼리는 PageQueryExecutor 때문에 다른 스레드에서 돌 수 있어서 거기서 나간 statement 는 따로 더한다.
+	public static final class Call {
+
+		private final Meters meters;
+		private final Thread caller = Thread.currentThread();
+		private final AtomicLong otherThreadStatements = new AtomicLong();
+
+		private Call(Meters meters) {
+			this.meters = meters;
+		}
+
+		public LongSupplier count(LongSupplier count) {
+			return () -> {
+				long start = System.nanoTime();
+				long statements = JdbcStatementCounter.current();
+				try {
+					return count.getAsLong();
+				} finally {
+					meters.count.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+					if (Thread.currentThread() != caller) {
+						otherThreadStatements.addAndGet(JdbcStatementCounter.current() - statements);
+					}
+				}
+			};
+		}
+	}
+
+	private static final class Meters {
+
+		private final Timer latency;
+		private final Timer count;
+		private final DistributionSummary rows;
+		private final DistributionSummary statements;
+
+		private Meters(MeterRegistry registry, Tags tags, boolean histogram) {
+			this.latency = Timer.builder("member.query")
+					.tags(tags)
+					.publishPercentileHistogram(histogram)
+					.register(registry);
+			this.count = Timer.builder("member.query.count")
+					.tags(tags)
+					.publishPercentileHistogram(histogram)
+					.register(registry);
+			this.rows = DistributionSummary.builder("member.query.rows")
+					.tags(tags)
+					.register(registry);
+			this.statements = DistributionSummary.builder("member.query.statements")
+					.tags(tags)
+					.register(registry);
+		}
+	}
+}
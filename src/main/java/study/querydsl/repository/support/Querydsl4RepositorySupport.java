@@ -3,6 +3,7 @@ package study.querydsl.repository.support;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.annotation.PostConstruct;
@@ -10,16 +11,22 @@ import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import
 		org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
-import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
  *
@@ -33,6 +40,8 @@ public abstract class Querydsl4RepositorySupport {
 	private Querydsl querydsl;
 	private EntityManager entityManager;
 	private JPAQueryFactory queryFactory;
+	private PageQueryExecutor pageQueryExecutor;
+	private QueryMetrics queryMetrics;
 
 	public Querydsl4RepositorySupport(Class<?> domainClass) {
 		Assert.notNull(domainClass, "Domain class must not be null!");
@@ -52,11 +61,23 @@ public abstract class Querydsl4RepositorySupport {
 		this.queryFactory = new JPAQueryFactory(entityManager);
 	}
 
+	@Autowired
+	public void setPageQueryExecutor(PageQueryExecutor pageQueryExecutor) {
+		this.pageQueryExecutor = pageQueryExecutor;
+	}
+
+	@Autowired
+	public void setQueryMetrics(QueryMetrics queryMetrics) {
+		this.queryMetrics = queryMetrics;
+	}
+
 	@PostConstruct
 	public void validate() {
 		Assert.notNull(entityManager, "EntityManager must not be null!");
 		Assert.notNull(querydsl, "Querydsl must not be null!");
 		Assert.notNull(queryFactory, "QueryFactory must not be null!");
+		Assert.notNull(pageQueryExecutor, "PageQueryExecutor must not be null!");
+		Assert.notNull(queryMetrics, "QueryMetrics must not be null!");
 	}
 	protected JPAQueryFactory getQueryFactory() {
 		return queryFactory;
@@ -67,28 +88,102 @@ public abstract class Querydsl4RepositorySupport {
 	protected EntityManager getEntityManager() {
 		return entityManager;
 	}
+	protected QueryMetrics getQueryMetrics() {
+		return queryMetrics;
+	}
 	protected <T> JPAQuery<T> select(Expression<T> expr) {
 		return getQueryFactory().select(expr);
 	}
 	protected <T> JPAQuery<T> selectFrom(EntityPath<T> from) {
 		return getQueryFactory().selectFrom(from);
 	}
+	// 읽기 전용 엔티티 조회 / 스냅샷 없이 읽고 flush 때 dirty checking 에서 빠진다 (ReadOnlyQueries)
+	// applyPagination 에서는 contentQuery 안에서 ReadOnlyQueries.readOnly(...) 로 감싸면 된다.
+	protected <T> JPAQuery<T> selectReadOnly(Expression<T> expr) {
+		return ReadOnlyQueries.readOnly(select(expr));
+	}
+	protected <T> JPAQuery<T> selectFromReadOnly(EntityPath<T> from) {
+		return ReadOnlyQueries.readOnly(selectFrom(from));
+	}
+	// count 는 content 쿼리에서 order by, 안쓰는 left join, 페치조인을 뺀 쿼리로 센다. (CountQueryBuilder)
 	protected <T> Page<T> applyPagination(Pageable pageable,
 			Function<JPAQueryFactory, JPAQuery> contentQuery) {
+		return applyPagination(pageable, (QueryMetrics.Call) null, contentQuery);
+	}
+	// call 을 넘기면 count 쿼리 시간도 QueryMetrics 에 남긴다.
+	protected <T> Page<T> applyPagination(Pageable pageable, QueryMetrics.Call call,
+			Function<JPAQueryFactory, JPAQuery> contentQuery) {
 		JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-		List<T> content = getQuerydsl().applyPagination(pageable,
-				jpaQuery).fetch();
-		return PageableExecutionUtils.getPage(content, pageable,
-				jpaQuery::fetchCount);
+		JPAQuery<Long> countQuery = count(jpaQuery); // applyPagination 이 jpaQuery 를 바꾸기 전에 만든다
+		LongSupplier count = countQuery::fetchOne;
+		return pageQueryExecutor.getPage(() -> getQuerydsl().applyPagination(pageable,
+				jpaQuery).fetch(), pageable, call != null ? call.count(count) : count);
 	}
+	// countQuery 는 select 절과 상관없이 조건만 맞춰서 넘기면 된다. (selectFrom(member).where(...))
 	protected <T> Page<T> applyPagination(Pageable pageable,
 			Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
 			JPAQuery> countQuery) {
 		JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-		List<T> content = getQuerydsl().applyPagination(pageable,
-				jpaContentQuery).fetch();
-		JPAQuery countResult = countQuery.apply(getQueryFactory());
-		return PageableExecutionUtils.getPage(content, pageable,
-				countResult::fetchCount);
+		JPAQuery<Long> countResult = count(countQuery.apply(getQueryFactory()));
+		return pageQueryExecutor.getPage(() -> getQuerydsl().applyPagination(pageable,
+				jpaContentQuery).fetch(), pageable, countResult::fetchOne);
+	}
+	// count 를 쿼리 없이 알 수 있을때 (캐시된 값, 통계 테이블 등)
+	protected <T> Page<T> applyPagination(Pageable pageable,
+			Function<JPAQueryFactory, JPAQuery> contentQuery, LongSupplier count) {
+		JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+		return pageQueryExecutor.getPage(() -> getQuerydsl().applyPagination(pageable,
+				jpaContentQuery).fetch(), pageable, count);
+	}
+	protected JPAQuery<Long> count(JPAQuery<?> query) {
+		return CountQueryBuilder.build(getEntityManager(), query);
+	}
+	// 컬렉션 페치조인(team.members 등)이 있는 엔티티 페이징
+	// 페치조인 쿼리에 limit 을 걸면 하이버네이트가 전부 읽어서 메모리에서 자른다. (HHH90003004 경고)
+	// 1. idQuery(페치조인 없이 필터만)로 이번 페이지의 id 만 DB 에서 limit / offset / 정렬해서 가져오고
+	// 2. fetchQuery 에 그 id 들을 넘겨서 where id in (:ids) + 페치조인으로 읽은 다음 1번 순서대로 다시 정렬한다.
+	// count 는 idQuery 로 센다. idQuery 에 to-many 조인을 넣으면 id 가 중복되니 필터는 exists 나 to-one 조인으로 건다.
+	protected <T, ID> Page<T> applyPaginationByIds(Pageable pageable, Expression<ID> id, Function<T, ID> idOf,
+			Function<JPAQueryFactory, JPAQuery> idQuery,
+			BiFunction<JPAQueryFactory, List<ID>, JPAQuery<T>> fetchQuery) {
+		JPAQuery jpaIdQuery = idQuery.apply(getQueryFactory());
+		JPAQuery<Long> countQuery = count(jpaIdQuery);
+		return pageQueryExecutor.getPage(() -> {
+			List<ID> ids = getQuerydsl().applyPagination(pageable, jpaIdQuery.select(id)).fetch();
+			if (ids.isEmpty()) {
+				return List.of();
+			}
+			return sortByIds(fetchQuery.apply(getQueryFactory(), ids).fetch(), ids, idOf);
+		}, pageable, countQuery::fetchOne);
+	}
+	private static <T, ID> List<T> sortByIds(List<T> entities, List<ID> ids, Function<T, ID> idOf) {
+		Map<ID, T> byId = new HashMap<>(entities.size() * 2);
+		for (T entity : entities) {
+			byId.put(idOf.apply(entity), entity);
+		}
+		List<T> sorted = new ArrayList<>(ids.size());
+		for (ID id : ids) {
+			T entity = byId.get(id);
+			if (entity != null) { // 그 사이에 지워진 row
+				sorted.add(entity);
+			}
+		}
+		return sorted;
+	}
+	// 결과에 달린 지연로딩 연관관계(member.team 등)를 in 절 한번으로 초기화 (BatchLoader)
+	protected <S> List<S> batchLoad(List<S> sources, Function<S, ?> association) {
+		return BatchLoader.load(getEntityManager(), sources, association);
+	}
+	// count 쿼리 없이 pageSize + 1 개를 조회해서 다음 페이지 여부만 판단한다.
+	protected <T> Slice<T> applySlicing(Pageable pageable,
+			Function<JPAQueryFactory, JPAQuery> contentQuery) {
+		JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+		JPQLQuery<T> pagedQuery = getQuerydsl().applyPagination(pageable, jpaQuery);
+		List<T> content = pagedQuery.limit(pageable.getPageSize() + 1L).fetch();
+		boolean hasNext = content.size() > pageable.getPageSize();
+		if (hasNext) {
+			content = content.subList(0, pageable.getPageSize());
+		}
+		return new SliceImpl<>(content, pageable, hasNext);
 	}
 }
@@ -0,0 +1,25 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+
+// 엔티티 조회를 읽기 전용으로 / 조회만 하고 고치지 않을 대량 조회에 쓴다.
+// 하이버네이트는 보통 엔티티마다 dirty checking 용 스냅샷(읽은 값 배열)을 같이 들고 있어서 row 당 힙이 거의 두배가 된다.
+// 읽기 전용으로 읽은 엔티티는 스냅샷을 안만들고 flush 때 dirty checking 에서도 빠진다. (값을 바꿔도 update 안나감)
+// @Transactional(readOnly = true) 안에서는 세션 전체가 이미 읽기 전용이라 의미가 없고,
+// 쓰기 트랜잭션 안에서 큰 조회를 섞어 쓸때 효과가 있다.
+public final class ReadOnlyQueries {
+
+	private ReadOnlyQueries() {
+	}
+
+	public static <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+		return query.setHint(HibernateHints.HINT_READ_ONLY, true);
+	}
+
+	// JPQL 로 직접 만든 쿼리용 (ShapeQueryCache)
+	public static Query readOnly(Query query) {
+		return query.setHint(HibernateHints.HINT_READ_ONLY, true);
+	}
+}
@@ -0,0 +1,125 @@
+package study.querydsl.repository.support;
+
+import static study.querydsl.repository.support.MemberSearchPredicates.sample;
+import static study.querydsl.repository.support.MemberSearchPredicates.sampleParameters;
+import static study.querydsl.repository.support.MemberSearchPredicates.shape;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import study.querydsl.dto.MemberSearchCondition;
+
+// 검색 쿼리 하나를 조건 모양(MemberSearchPredicates.shape)별로 한번만 JPQL 로 직렬화해두고, 그 뒤로는 파라미터만 바인딩한다.
+// 모양은 16가지 뿐이라 크기 제한은 필요없다. JPQL 문자열이 같으니 하이버네이트 쿼리 플랜 캐시도 항상 적중한다.
+//
+// 직렬화할때 나온 상수(?1, ?2 ...)마다 어느 조건 필드의 sample 값인지 보고 바인딩할 필드를 정해둔다. (순서에 기대지 않는다)
+// 조건 필드가 아닌 상수는 그 값 그대로 바인딩한다.
+// 필드 하나가 상수 하나와 딱 맞지 않으면 (같은 값이 합쳐졌거나 조건이 빠진 경우) 캐시하지 않고 바로 예외를 던진다.
+// 정렬 / 페이징처럼 모양 말고도 JPQL 이 바뀌는 쿼리는 여기 넣지 않는다.
+public final class ShapeQueryCache<T> {
+
+	private final Function<MemberSearchCondition, JPAQuery<T>> queryBuilder;
+	private final AtomicReferenceArray<ShapeQuery> queries = new AtomicReferenceArray<>(1 << 4);
+
+	public ShapeQueryCache(Function<MemberSearchCondition, JPAQuery<T>> queryBuilder) {
+		this.queryBuilder = queryBuilder;
+	}
+
+	public List<T> fetch(EntityManager em, MemberSearchCondition condition) {
+		return fetch(em, condition, query -> {
+		});
+	}
+
+	// hints: 읽기 전용 같은 쿼리 힌트 / JPQL 에는 안들어가니 호출할때마다 건다
+	public List<T> fetch(EntityManager em, MemberSearchCondition condition, Consumer<Query> hints) {
+		ShapeQuery shapeQuery = shapeQuery(em, condition);
+		Query query = shapeQuery.bind(em, condition);
+		hints.accept(query);
+		List<?> rows = query.getResultList();
+		List<T> result = new ArrayList<>(rows.size());
+		for (Object row : rows) {
+			result.add(shapeQuery.convert(row));
+		}
+		return result;
+	}
+
+	public T fetchOne(EntityManager em, MemberSearchCondition condition) {
+		ShapeQuery shapeQuery = shapeQuery(em, condition);
+		return shapeQuery.convert(shapeQuery.bind(em, condition).getSingleResult());
+	}
+
+	private ShapeQuery shapeQuery(EntityManager em, MemberSearchCondition condition) {
+		int shape = shape(condition);
+		ShapeQuery found = queries.get(shape);
+		if (found == null) {
+			found = build(em, shape);
+			queries.compareAndSet(shape, null, found); // 같은 모양이면 결과도 같으니 경쟁해도 상관없다
+		}
+		return found;
+	}
+
+	private ShapeQuery build(EntityManager em, int shape) {
+		JPAQuery<T> query = queryBuilder.apply(sample(shape));
+		JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+		serializer.serialize(query.getMetadata(), false, null);
+
+		Map<Object, Function<MemberSearchCondition, Object>> fields = sampleParameters(shape);
+		List<Object> constants = serializer.getConstants();
+		List<Function<MemberSearchCondition, Object>> parameters = new ArrayList<>(constants.size());
+		int boundFields = 0;
+		for (Object constant : constants) {
+			Function<MemberSearchCondition, Object> field = fields.get(constant);
+			if (field != null) {
+				boundFields++;
+			}
+			parameters.add(field != null ? field : condition -> constant);
+		}
+		if (boundFields != fields.size()) {
+			throw new IllegalStateException("조건 " + fields.size() + "개가 JPQL 파라미터 " + boundFields
+					+ "개로 직렬화됐습니다. 모양별로 캐시할 수 없는 쿼리입니다: " + serializer);
+		}
+		return new ShapeQuery(serializer.toString(), parameters, query.getMetadata().getProjection());
+	}
+
+	private final class ShapeQuery {
+
+		private final String jpql;
+		private final List<Function<MemberSearchCondition, Object>> parameters;
+		private final FactoryExpression<T> factory;
+
+		@SuppressWarnings("unchecked")
+		private ShapeQuery(String jpql, List<Function<MemberSearchCondition, Object>> parameters, Expression<?> projection) {
+			this.jpql = jpql;
+			this.parameters = parameters;
+			this.factory = projection instanceof FactoryExpression<?> factoryExpression
+					? (FactoryExpression<T>) factoryExpression : null;
+		}
+
+		private Query bind(EntityManager em, MemberSearchCondition condition) {
+			Query query = em.createQuery(jpql);
+			for (int i = 0; i < parameters.size(); i++) {
+				query.setParameter(i + 1, parameters.get(i).apply(condition));
+			}
+			return query;
+		}
+
+		// DTO 프로젝션은 JPQL 로는 컬럼 배열이 오니 Querydsl 이 하듯 직접 만든다
+		@SuppressWarnings("unchecked")
+		private T convert(Object row) {
+			if (factory == null) {
+				return (T) row;
+			}
+			return row instanceof Object[] columns ? factory.newInstance(columns) : factory.newInstance(row);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package study.querydsl.repository.support;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import study.querydsl.entity.Team;
+
+@Repository
+public class TeamTestRepository extends Querydsl4RepositorySupport {
+
+	public TeamTestRepository() {
+		super(Team.class);
+	}
+
+	// 팀 페이지 + 팀마다 members 를 한번에 / 페이징은 id 로 DB 에서, 페치조인은 그 id 들에만
+	// memberUsername 조건은 members 를 조인하면 팀이 중복되니 exists 서브쿼리로 건다.
+	public Page<Team> searchWithMembers(String memberUsername, Pageable pageable) {
+		return applyPaginationByIds(pageable, team.id, Team::getId,
+				idQuery -> idQuery
+						.selectFrom(team)
+						.where(hasMember(memberUsername)),
+				(fetchQuery, ids) -> fetchQuery
+						.selectFrom(team)
+						.leftJoin(team.members, member).fetchJoin()
+						.where(team.id.in(ids)));
+	}
+
+	private BooleanExpression hasMember(String username) {
+		if (!hasText(username)) {
+			return null;
+		}
+		return JPAExpressions.selectOne()
+				.from(member)
+				.where(member.team.eq(team), member.username.eq(username))
+				.exists();
+	}
+}
@@ -0,0 +1,29 @@
+package study.querydsl.trace;
+
+import java.util.Map;
+import org.hibernate.SessionEventListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+// 하이버네이트가 statement 를 실행할때마다 JdbcStatementCounter 를 올린다. (prepare 가 아니라 execute 기준, batch 는 1번)
+// 빈은 hibernate.session.events.auto 에 이 클래스를 등록만 하고, 하이버네이트가 세션마다 새로 만들어서 쓴다.
+// JDBC 프록시 없이 세기 때문에 SQL 추적(sql-trace)을 꺼도 센다.
+@Component
+public class JdbcExecutionListener implements SessionEventListener, HibernatePropertiesCustomizer {
+
+	@Override
+	public void customize(Map<String, Object> hibernateProperties) {
+		hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcExecutionListener.class.getName());
+	}
+
+	@Override
+	public void jdbcExecuteStatementStart() {
+		JdbcStatementCounter.increment();
+	}
+
+	@Override
+	public void jdbcExecuteBatchStart() {
+		JdbcStatementCounter.increment();
+	}
+}
@@ -0,0 +1,19 @@
+package study.querydsl.trace;
+
+// 스레드별로 지금까지 실행한 JDBC statement 수 / JdbcExecutionListener 가 올린다. (batch 는 한번에 1)
+// 앞뒤로 current() 를 읽어서 빼면 그 사이에 나간 SQL 수가 된다. (QueryMetrics)
+public final class JdbcStatementCounter {
+
+	private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+	private JdbcStatementCounter() {
+	}
+
+	public static long current() {
+		return COUNT.get()[0];
+	}
+
+	static void increment() {
+		COUNT.get()[0]++;
+	}
+}
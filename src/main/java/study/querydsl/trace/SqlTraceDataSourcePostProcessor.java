@@ -0,0 +1,48 @@
+package study.querydsl.trace;
+
+import javax.sql.DataSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// member.sql-trace.enabled=true 로 띄웠을때만 DataSource 빈을 TracingDataSource 로 감싼다.
+// 꺼져있으면 HikariDataSource 가 그대로 빈으로 남아서 Boot 의 커넥션 풀 지표 / health 가 그대로 동작한다.
+// DataSource 빈이 여러개면 @Primary 하나만 감싼다. (라우팅처럼 안쪽 풀을 또 감싸면 statement 가 여러번 추적된다)
+// BeanPostProcessor 는 일찍 만들어지니 SqlTracer 는 첫 커넥션을 꺼낼때 가져온다.
+@Component
+@ConditionalOnProperty(name = "member.sql-trace.enabled", havingValue = "true")
+public class SqlTraceDataSourcePostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+	private final ObjectProvider<SqlTracer> sqlTracer;
+	private ConfigurableListableBeanFactory beanFactory;
+
+	public SqlTraceDataSourcePostProcessor(ObjectProvider<SqlTracer> sqlTracer) {
+		this.sqlTracer = sqlTracer;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource) && outermost(beanName)) {
+			return new TracingDataSource(dataSource, sqlTracer);
+		}
+		return bean;
+	}
+
+	private boolean outermost(String beanName) {
+		String[] dataSources = beanFactory.getBeanNamesForType(DataSource.class, true, false);
+		if (dataSources.length == 1) {
+			return true;
+		}
+		return beanFactory.containsBeanDefinition(beanName) && beanFactory.getBeanDefinition(beanName).isPrimary();
+	}
+}
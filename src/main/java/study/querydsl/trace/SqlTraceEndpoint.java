@@ -0,0 +1,43 @@
+package study.querydsl.trace;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// GET  /actuator/sqltrace -> 현재 설정과 남긴 / 버린 건수
+// POST /actuator/sqltrace {"enabled": true, "sampleRate": 0.1, "slowThreshold": "50ms"} -> 넘긴 값만 바꾼다
+// attached 가 false 면 member.sql-trace.enabled=false 로 띄워서 DataSource 가 안감싸진 것이라 켜도 추적되지 않는다.
+@Component
+@Endpoint(id = "sqltrace")
+@RequiredArgsConstructor
+public class SqlTraceEndpoint {
+
+	private final SqlTracer sqlTracer;
+	private final ObjectProvider<SqlTraceDataSourcePostProcessor> postProcessor;
+
+	@ReadOperation
+	public Map<String, Object> settings() {
+		Map<String, Object> settings = new LinkedHashMap<>();
+		settings.put("attached", postProcessor.getIfAvailable() != null);
+		settings.put("enabled", sqlTracer.isEnabled());
+		settings.put("sampleRate", sqlTracer.getSampleRate());
+		settings.put("slowThreshold", sqlTracer.getSlowThreshold().toString());
+		settings.put("traced", sqlTracer.getTraced());
+		settings.put("dropped", sqlTracer.getDropped());
+		return settings;
+	}
+
+	@WriteOperation
+	public Map<String, Object> configure(@Nullable Boolean enabled, @Nullable Double sampleRate,
+			@Nullable Duration slowThreshold) {
+		sqlTracer.configure(enabled, sampleRate, slowThreshold);
+		return settings();
+	}
+}
@@ -0,0 +1,24 @@
+package study.querydsl.trace;
+
+import java.util.Arrays;
+
+// 바인딩 값은 참조만 들고있다가 로그를 찍을때(toString) 문자열로 만든다.
+record SqlTraceEvent(String sql, Object[] parameters, int batchSize, long elapsedNanos, boolean slow) {
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(sql.length() + 64);
+		sb.append(elapsedNanos / 1_000).append("us");
+		if (slow) {
+			sb.append(" SLOW");
+		}
+		if (batchSize > 0) {
+			sb.append(" batch=").append(batchSize);
+		}
+		sb.append(" | ").append(sql.replaceAll("\\s+", " ").trim());
+		if (parameters != null && parameters.length > 0) {
+			sb.append(" | ").append(Arrays.toString(parameters));
+		}
+		return sb.toString();
+	}
+}
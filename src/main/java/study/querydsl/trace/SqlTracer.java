@@ -0,0 +1,110 @@
+package study.querydsl.trace;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// p6spy 대신 쓰는 SQL 추적
+// 모든 SQL 을 찍지 않고 sample-rate 비율만큼 + slow-threshold 보다 오래 걸린 SQL 만 남긴다.
+// 실행하는 스레드에서는 SQL 과 바인딩 값 참조만 큐에 넣고, 문자열 만들기와 로그 출력은 별도 스레드에서 한다.
+// 큐가 차면 기다리지 않고 버린다. (dropped 로 확인)
+// 설정은 /actuator/sqltrace 로 재시작 없이 바꾼다. (SqlTraceEndpoint)
+// 켜져 있으면 커넥션 / statement 를 프록시로 감싸서 비용이 드니 기본은 꺼져있고 local / dev 에서만 켠다.
+@Slf4j
+@Component
+public class SqlTracer implements DisposableBean {
+
+	private static final int QUEUE_CAPACITY = 1024;
+
+	private volatile boolean enabled;
+	private volatile double sampleRate;
+	private volatile long slowThresholdNanos;
+
+	private final BlockingQueue<SqlTraceEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private final AtomicLong traced = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final Thread writer;
+
+	public SqlTracer(@Value("${member.sql-trace.enabled:false}") boolean enabled,
+			@Value("${member.sql-trace.sample-rate:0.01}") double sampleRate,
+			@Value("${member.sql-trace.slow-threshold:100ms}") Duration slowThreshold) {
+		configure(enabled, sampleRate, slowThreshold);
+		this.writer = new Thread(this::write, "sql-trace-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	public void configure(Boolean enabled, Double sampleRate, Duration slowThreshold) {
+		if (sampleRate != null) {
+			this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+		}
+		if (slowThreshold != null) {
+			this.slowThresholdNanos = slowThreshold.toNanos();
+		}
+		if (enabled != null) {
+			this.enabled = enabled;
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	public Duration getSlowThreshold() {
+		return Duration.ofNanos(slowThresholdNanos);
+	}
+
+	public long getTraced() {
+		return traced.get();
+	}
+
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	// 실행이 끝난 SQL 하나 / 남길지 말지만 정하고 바로 돌아간다
+	// parameters 는 statement 가 계속 재사용하는 배열이라 남길때만 복사한다.
+	void record(String sql, Object[] parameters, int parameterCount, int batchSize, long elapsedNanos) {
+		boolean slow = elapsedNanos >= slowThresholdNanos;
+		if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+			return;
+		}
+		Object[] snapshot = parameterCount > 0 ? Arrays.copyOf(parameters, parameterCount) : null;
+		if (queue.offer(new SqlTraceEvent(sql, snapshot, batchSize, elapsedNanos, slow))) {
+			traced.incrementAndGet();
+		} else {
+			dropped.incrementAndGet();
+		}
+	}
+
+	private void write() {
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				SqlTraceEvent event = queue.take();
+				if (event.slow()) {
+					log.warn("{}", event);
+				} else {
+					log.info("{}", event);
+				}
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		writer.interrupt();
+	}
+}
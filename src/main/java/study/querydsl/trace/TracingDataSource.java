@@ -0,0 +1,173 @@
+package study.querydsl.trace;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// 커넥션과 statement 를 JDK 프록시로 감싸서 실행시간과 바인딩 값을 SqlTracer 로 넘긴다.
+// 추적이 꺼져있으면 커넥션을 감싸지 않고 그대로 돌려준다. (실행중에 켜면 그 뒤에 꺼내는 커넥션부터 추적)
+class TracingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+	private final ObjectProvider<SqlTracer> tracerProvider;
+	private volatile SqlTracer tracer;
+
+	TracingDataSource(DataSource target, ObjectProvider<SqlTracer> tracerProvider) {
+		super(target);
+		this.tracerProvider = tracerProvider;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return wrap(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return wrap(super.getConnection(username, password));
+	}
+
+	private Connection wrap(Connection connection) {
+		if (!tracer().isEnabled()) {
+			return connection;
+		}
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+	}
+
+	// 감싸고 나면 스프링이 원래 DataSource 의 close 를 못찾으니 대신 닫아준다 (커넥션 풀 종료)
+	@Override
+	public void close() throws Exception {
+		if (getTargetDataSource() instanceof AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+
+	private SqlTracer tracer() {
+		SqlTracer current = tracer;
+		if (current == null) {
+			current = tracerProvider.getObject();
+			tracer = current;
+		}
+		return current;
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private class ConnectionHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		ConnectionHandler(Connection target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Tracing[" + target + "]";
+				default:
+			}
+			Object result = TracingDataSource.invoke(target, method, args);
+			if (!(result instanceof Statement statement)) {
+				return result;
+			}
+			if (!tracer().isEnabled()) {
+				return result;
+			}
+			Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+					: statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+			String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+			return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+					new StatementHandler(statement, sql, tracer()));
+		}
+	}
+
+	private static class StatementHandler implements InvocationHandler {
+
+		private static final Object[] NO_PARAMETERS = new Object[0];
+
+		private final Statement target;
+		private final String sql;
+		private final SqlTracer tracer;
+		private Object[] parameters = NO_PARAMETERS;
+		private int parameterCount;
+		private int batchSize;
+
+		StatementHandler(Statement target, String sql, SqlTracer tracer) {
+			this.target = target;
+			this.sql = sql;
+			this.tracer = tracer;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.startsWith("execute")) {
+				long start = System.nanoTime();
+				try {
+					return TracingDataSource.invoke(target, method, args);
+				} finally {
+					long elapsed = System.nanoTime() - start;
+					boolean batch = name.equals("executeBatch") || name.equals("executeLargeBatch");
+					String executed = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+					tracer.record(executed != null ? executed : "<batch>", parameters, parameterCount,
+							batch ? batchSize : 0, elapsed);
+					if (batch) {
+						batchSize = 0;
+					}
+				}
+			}
+			switch (name) {
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "addBatch":
+					batchSize++;
+					break;
+				case "clearBatch":
+					batchSize = 0;
+					break;
+				case "clearParameters":
+					Arrays.fill(parameters, 0, parameterCount, null);
+					parameterCount = 0;
+					break;
+				default:
+					if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+						bind(index, name.equals("setNull") ? null : args[1]);
+					}
+			}
+			return TracingDataSource.invoke(target, method, args);
+		}
+
+		// 참조만 저장하고 문자열로 바꾸는건 로그 찍을때 한다
+		private void bind(int index, Object value) {
+			if (index > parameters.length) {
+				parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+			}
+			parameters[index - 1] = value;
+			parameterCount = Math.max(parameterCount, index);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package study.querydsl.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// 동시에 처리중인 요청 수를 permits 로 제한한다.
+// 자리가 없으면 acquire-timeout 만큼 기다리고 그래도 없으면 503 / Semaphore 대기는 가상 스레드를 OS 스레드에서 내려놓는다.
+// 커넥션 풀 앞에서 기다리게 하는거라 풀의 connectionTimeout(30s) 까지 쌓여서 한꺼번에 실패하는걸 막는다.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	private final Semaphore permits;
+	private final long timeoutNanos;
+	private final Counter rejected;
+
+	public ConcurrencyLimitFilter(int maxConcurrency, Duration acquireTimeout, MeterRegistry meterRegistry) {
+		this.permits = new Semaphore(maxConcurrency, true);
+		this.timeoutNanos = acquireTimeout.toNanos();
+		this.rejected = Counter.builder("member.web.concurrency.rejected").register(meterRegistry);
+		Gauge.builder("member.web.concurrency.waiting", permits, Semaphore::getQueueLength).register(meterRegistry);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			acquired = false;
+		}
+		if (!acquired) {
+			rejected.increment();
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+			return;
+		}
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			permits.release();
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package study.querydsl.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+// 가상 스레드가 synchronized 블록 안에서 막히면(pinning) OS 스레드까지 같이 잡혀서 가상 스레드를 쓰는 의미가 없어진다.
+// JFR 의 jdk.VirtualThreadPinned 이벤트를 받아서 threshold 보다 오래 잡힌 경우 위치를 warn 으로 남기고 횟수를 센다.
+// (jvm.threads.virtual.pinned) 더 자세히 보려면 -Djdk.tracePinnedThreads=full 로 띄운다.
+// 데이터 경로에서 알려진 곳
+// - H2 JDBC 드라이버: 세션 단위로 synchronized 를 건다
+// - MemberCountCache / MemberSearchCache: Caffeine 이 ConcurrentHashMap.compute 안에서 loader(쿼리)를 돌린다
+@Slf4j
+public class PinnedThreadMonitor implements DisposableBean {
+
+	private static final String EVENT = "jdk.VirtualThreadPinned";
+	private static final int FRAMES = 8;
+
+	private final RecordingStream stream = new RecordingStream();
+	private final Counter pinned;
+
+	public PinnedThreadMonitor(MeterRegistry meterRegistry, Duration threshold) {
+		this.pinned = Counter.builder("jvm.threads.virtual.pinned").register(meterRegistry);
+		stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+		stream.onEvent(EVENT, this::onPinned);
+		stream.startAsync();
+	}
+
+	private void onPinned(RecordedEvent event) {
+		pinned.increment();
+		log.warn("가상 스레드 pinning {}ms\n\t{}", event.getDuration().toMillis(), frames(event));
+	}
+
+	private static String frames(RecordedEvent event) {
+		if (event.getStackTrace() == null) {
+			return "";
+		}
+		List<RecordedFrame> frames = event.getStackTrace().getFrames();
+		return frames.stream()
+				.limit(FRAMES)
+				.map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+						+ ":" + frame.getLineNumber())
+				.collect(Collectors.joining("\n\t"));
+	}
+
+	@Override
+	public void destroy() {
+		stream.close();
+	}
+}
@@ -0,0 +1,101 @@
+package study.querydsl.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+// member.web.virtual-threads=true 면 톰캣이 요청마다 가상 스레드를 하나씩 만들어서 처리한다.
+// JDBC 처럼 막히는 호출 동안 OS 스레드를 잡고있지 않아서 요청 수가 톰캣 스레드풀(200)에 묶이지 않는다.
+// 대신 요청이 몇천개씩 들어와도 커넥션은 풀 크기만큼이라 /api 요청 동시 처리 수를 ConcurrencyLimitFilter 로 막는다.
+// 가상 스레드는 Java 21 이상에서만 있으니 리플렉션으로 찾아보고 없으면 경고만 남기고 기존 스레드풀로 돈다.
+// 그때는 동시 처리 수 제한과 pinning 감시도 안붙인다. (톰캣 스레드풀이 이미 동시 처리 수를 정한다)
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "member.web.virtual-threads", havingValue = "true")
+public class VirtualThreadConfig {
+
+	@Bean
+	TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		ExecutorService executor = newVirtualThreadPerTaskExecutor();
+		if (executor == null) {
+			log.warn("가상 스레드는 Java 21 이상에서만 쓸 수 있습니다. 톰캣 기본 스레드풀로 동작하고 /api 동시 처리 수 제한도 안붙입니다. (java {})",
+					Runtime.version());
+			return handler -> {
+			};
+		}
+		return handler -> handler.setExecutor(executor);
+	}
+
+	// 커넥션 풀에서 요청 스레드 몫만큼만 동시에 처리하고 나머지는 기다리게 한다. (DB 를 안쓰는 /actuator 는 제외)
+	@Bean
+	@Conditional(VirtualThreadsAvailable.class)
+	FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+			@Value("${member.web.max-concurrency:0}") int maxConcurrency,
+			@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+			@Value("${member.page-query.parallel:true}") boolean parallelCount,
+			@Value("${member.page-query.max-concurrency:4}") int countConcurrency,
+			@Value("${member.async-query.threads:4}") int asyncThreads,
+			@Value("${member.web.acquire-timeout:1s}") Duration acquireTimeout,
+			MeterRegistry meterRegistry) {
+		int permits = maxConcurrency > 0 ? maxConcurrency
+				: requestConnections(poolSize, parallelCount ? countConcurrency : 0, asyncThreads);
+		if (maxConcurrency <= 0 && permits < poolSize / 2) {
+			log.warn("/api 동시 처리 수가 {} 입니다. (커넥션 풀 {} - 페이징 count {} - 비동기 검색 {}) "
+							+ "커넥션 풀을 늘리거나 member.web.max-concurrency 를 지정하세요.",
+					permits, poolSize, parallelCount ? countConcurrency : 0, asyncThreads);
+		} else {
+			log.info("/api 동시 처리 수 {} (커넥션 풀 {})", permits, poolSize);
+		}
+		FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+				new ConcurrencyLimitFilter(permits, acquireTimeout, meterRegistry));
+		registration.addUrlPatterns("/api/*");
+		return registration;
+	}
+
+	@Bean
+	@Conditional(VirtualThreadsAvailable.class)
+	PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry,
+			@Value("${member.web.pinned-threshold:20ms}") Duration threshold) {
+		return new PinnedThreadMonitor(meterRegistry, threshold);
+	}
+
+	// 페이징 count(PageQueryExecutor) 와 비동기 검색(AsyncQueryExecutor) 스레드도 요청 밖에서 커넥션을 하나씩 잡는다.
+	// 둘이 다 찼을때도 요청 스레드가 커넥션을 기다리지 않도록 그만큼 빼고, 최소 1개는 남긴다.
+	static int requestConnections(int poolSize, int countConcurrency, int asyncThreads) {
+		return Math.max(1, poolSize - countConcurrency - asyncThreads);
+	}
+
+	// 스프링 부트 3.1 에는 @ConditionalOnJava(TWENTY_ONE) 이 없어서 직접 본다
+	static class VirtualThreadsAvailable implements Condition {
+
+		@Override
+		public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			try {
+				Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				return true;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null; // Java 17 이면 여기로 온다
+		}
+	}
+}
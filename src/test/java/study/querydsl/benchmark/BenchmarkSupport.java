@@ -0,0 +1,77 @@
+package study.querydsl.benchmark;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// 벤치마크용 데이터 적재와 시간 측정 유틸
+// em.persist 로 백만건 넣으면 한참 걸리니까 JDBC batch 로 바로 넣는다.
+public abstract class BenchmarkSupport {
+
+	private static final int BATCH_SIZE = 10_000;
+
+	public static void seed(JdbcTemplate jdbcTemplate, int teamCount, int memberCount) {
+		List<Object[]> teams = new ArrayList<>();
+		for (int i = 0; i < teamCount; i++) {
+			teams.add(new Object[]{(long) i + 1, "team" + i});
+		}
+		jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teams);
+
+		List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < memberCount; i++) {
+			batch.add(new Object[]{(long) i + 1, "member" + i, i % 100, (long) (i % teamCount) + 1});
+			if (batch.size() == BATCH_SIZE) {
+				insertMembers(jdbcTemplate, batch);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			insertMembers(jdbcTemplate, batch);
+		}
+	}
+
+	public static void clear(JdbcTemplate jdbcTemplate) {
+		jdbcTemplate.update("delete from member");
+		jdbcTemplate.update("delete from team");
+	}
+
+	// 워밍업 1번 후 repeat 번 돌려서 중앙값(마이크로초)
+	// H2 는 같은 쿼리에 같은 파라미터면 직전 결과를 재사용하므로 회차(i)마다 파라미터를 조금씩 바꿔서 넘겨야 한다.
+	public static long medianMicros(int repeat, IntConsumer task) {
+		task.accept(repeat);
+		long[] elapsed = new long[repeat];
+		for (int i = 0; i < repeat; i++) {
+			long start = System.nanoTime();
+			task.accept(i);
+			elapsed[i] = (System.nanoTime() - start) / 1_000;
+		}
+		Arrays.sort(elapsed);
+		return elapsed[repeat / 2];
+	}
+
+	// 워밍업 후 iterations 번 돌려서 한번당 CPU 시간(ns)과 할당 바이트 평균 / [cpuNanos, allocatedBytes]
+	// JMH 처럼 현재 스레드 기준으로만 재서 GC 나 다른 스레드 영향은 빠진다.
+	public static long[] cpuAndAllocationPerOp(int iterations, IntConsumer task) {
+		ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		for (int i = 0; i < iterations; i++) {
+			task.accept(i);
+		}
+		long cpuStart = threadMXBean.getCurrentThreadCpuTime();
+		long allocatedStart = threadMXBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < iterations; i++) {
+			task.accept(i);
+		}
+		long cpu = threadMXBean.getCurrentThreadCpuTime() - cpuStart;
+		long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedStart;
+		return new long[]{cpu / iterations, allocated / iterations};
+	}
+
+	private static void insertMembers(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+		jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", batch);
+	}
+}
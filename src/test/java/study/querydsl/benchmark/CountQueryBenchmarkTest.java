@@ -0,0 +1,64 @@
+package study.querydsl.benchmark;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.CountQueryBuilder;
+
+// ./gradlew benchmark 로 실행 (기본 test 에서는 빠진다)
+// content 쿼리를 그대로 감싸는 fetchCount(before)와 CountQueryBuilder(after)의 count 시간 비교
+// content 는 team 을 left join 하고 정렬하지만 조건은 member 에만 걸려서 after 는 member 만 센다.
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CountQueryBenchmarkTest {
+
+	static final int MEMBER_COUNT = Integer.getInteger("benchmark.members", 1_000_000);
+	static final int REPEAT = 5;
+
+	@Autowired JdbcTemplate jdbcTemplate;
+	@Autowired JPAQueryFactory queryFactory;
+	@Autowired EntityManager em;
+
+	@BeforeAll
+	void seed() {
+		BenchmarkSupport.seed(jdbcTemplate, 10, MEMBER_COUNT);
+	}
+
+	@AfterAll
+	void clear() {
+		BenchmarkSupport.clear(jdbcTemplate);
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	void fetchCountVsCountQueryBuilder() {
+		System.out.println("members = " + MEMBER_COUNT);
+		System.out.println("fetchCount(us)\tbuilder(us)");
+
+		long before = BenchmarkSupport.medianMicros(REPEAT, i -> contentQuery(i).fetchCount());
+		long after = BenchmarkSupport.medianMicros(REPEAT, i -> CountQueryBuilder.build(em, contentQuery(i)).fetchOne());
+
+		System.out.println(before + "\t" + after);
+	}
+
+	private JPAQuery<Member> contentQuery(int i) {
+		return queryFactory
+				.selectFrom(member)
+				.leftJoin(member.team, team)
+				.where(member.age.goe(i))
+				.orderBy(member.username.asc());
+	}
+}
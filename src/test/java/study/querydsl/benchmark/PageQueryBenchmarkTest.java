@@ -0,0 +1,84 @@
+package study.querydsl.benchmark;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.dsl.Wildcard;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.PageQueryExecutor;
+
+// ./gradlew benchmark 로 실행 (기본 test 에서는 빠진다)
+// content 와 count 를 순서대로 돌릴때와 동시에 돌릴때 한 페이지 응답시간 비교
+// 동시에 돌리면 대략 max(content, count) 가 되어야 한다.
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PageQueryBenchmarkTest {
+
+	static final int MEMBER_COUNT = Integer.getInteger("benchmark.members", 1_000_000);
+	static final int PAGE_SIZE = 20;
+	static final int REPEAT = 5;
+
+	@Autowired JdbcTemplate jdbcTemplate;
+	@Autowired JPAQueryFactory queryFactory;
+	@Autowired PageQueryExecutor pageQueryExecutor;
+
+	@BeforeAll
+	void seed() {
+		BenchmarkSupport.seed(jdbcTemplate, 10, MEMBER_COUNT);
+	}
+
+	@AfterAll
+	void clear() {
+		BenchmarkSupport.clear(jdbcTemplate);
+	}
+
+	@Test
+	void sequentialVsParallel() {
+		System.out.println("members = " + MEMBER_COUNT + ", pageSize = " + PAGE_SIZE);
+		System.out.println("offset\tsequential(us)\tparallel(us)");
+
+		for (int offset : new int[]{0, MEMBER_COUNT / 10, MEMBER_COUNT / 2}) {
+			PageRequest pageRequest = PageRequest.of(offset / PAGE_SIZE, PAGE_SIZE);
+
+			long sequential = BenchmarkSupport.medianMicros(REPEAT, i -> PageableExecutionUtils.getPage(
+					contentQuery(i, pageRequest).fetch(), pageRequest, () -> countQuery(i).fetchOne()));
+			long parallel = BenchmarkSupport.medianMicros(REPEAT, i -> pageQueryExecutor.getPage(
+					() -> contentQuery(i, pageRequest).fetch(), pageRequest, () -> countQuery(i).fetchOne()));
+
+			System.out.println(offset + "\t" + sequential + "\t" + parallel);
+		}
+	}
+
+	// 조건이 거의 안걸러지는 경우 (age >= i) 라 count 도 content 만큼 오래 걸린다
+	private JPAQuery<MemberTeamDto> contentQuery(int i, PageRequest pageRequest) {
+		return queryFactory
+				.select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+				.from(member)
+				.leftJoin(member.team, team)
+				.where(member.age.goe(i), team.name.startsWith("team"))
+				.offset(pageRequest.getOffset())
+				.limit(pageRequest.getPageSize());
+	}
+
+	private JPAQuery<Long> countQuery(int i) {
+		return queryFactory
+				.select(Wildcard.count)
+				.from(member)
+				.leftJoin(member.team, team)
+				.where(member.age.goe(i), team.name.startsWith("team"));
+	}
+}
@@ -0,0 +1,90 @@
+package study.querydsl.benchmark;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+// ./gradlew benchmark 로 실행 (기본 test 에서는 빠진다)
+// offset 은 앞 row 를 다 읽고 버려서 깊이에 비례해 느려지고, 키셋은 깊이와 상관없이 비슷해야 한다.
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PagingBenchmarkTest {
+
+	static final int MEMBER_COUNT = Integer.getInteger("benchmark.members", 1_000_000);
+	static final int PAGE_SIZE = 20;
+	static final int REPEAT = 5;
+
+	@Autowired JdbcTemplate jdbcTemplate;
+	@Autowired JPAQueryFactory queryFactory;
+	@Autowired MemberRepository memberRepository;
+
+	@BeforeAll
+	void seed() {
+		BenchmarkSupport.seed(jdbcTemplate, 10, MEMBER_COUNT);
+	}
+
+	@AfterAll
+	void clear() {
+		BenchmarkSupport.clear(jdbcTemplate);
+	}
+
+	@Test
+	void deepOffsetVsKeyset() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		System.out.println("members = " + MEMBER_COUNT + ", pageSize = " + PAGE_SIZE);
+		System.out.println("depth\toffset(us)\tkeyset(us)");
+
+		for (int depth : new int[]{0, MEMBER_COUNT / 100, MEMBER_COUNT / 10, MEMBER_COUNT / 2, MEMBER_COUNT - PAGE_SIZE - REPEAT}) {
+			// 같은 정렬(age, id)로 offset 만 다르게 줘서 비교
+			long offset = BenchmarkSupport.medianMicros(REPEAT, i -> queryFactory
+					.select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+					.from(member)
+					.leftJoin(member.team, team)
+					.orderBy(member.age.asc(), member.id.asc())
+					.offset(depth + i)
+					.limit(PAGE_SIZE)
+					.fetch());
+
+			List<String> cursors = new ArrayList<>();
+			for (int i = 0; i <= REPEAT; i++) {
+				cursors.add(cursorAt(depth + i));
+			}
+			long keyset = BenchmarkSupport.medianMicros(REPEAT,
+					i -> memberRepository.searchByCursor(condition, cursors.get(i), PAGE_SIZE));
+
+			System.out.println(depth + "\t" + offset + "\t" + keyset);
+		}
+	}
+
+	// depth 번째 row 바로 앞 row 의 커서
+	private String cursorAt(int depth) {
+		if (depth == 0) {
+			return null;
+		}
+		Tuple last = queryFactory
+				.select(member.age, member.id)
+				.from(member)
+				.orderBy(member.age.asc(), member.id.asc())
+				.offset(depth - 1)
+				.limit(1)
+				.fetchOne();
+		return new MemberCursor(last.get(member.age), last.get(member.id)).encode();
+	}
+}
@@ -0,0 +1,83 @@
+package study.querydsl.benchmark;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.JoinEliminator.leftJoinIfUsed;
+import static study.querydsl.repository.support.MemberSearchPredicates.searchCondition;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.MemberQueryRepository;
+
+// ./gradlew benchmark 로 실행 (기본 test 에서는 빠진다)
+// 요청마다 Querydsl 식을 만들고 JPQL 로 직렬화할때(before)와 모양별로 캐시된 JPQL 에 바인딩만 할때(after)
+// 한 요청당 CPU 시간과 할당량 비교 / 쿼리 만드는 비용이 보이도록 결과가 몇건 안되는 조건으로 잰다.
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryShapeBenchmarkTest {
+
+	static final int MEMBER_COUNT = 1_000;
+	static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20_000);
+
+	@Autowired JdbcTemplate jdbcTemplate;
+	@Autowired JPAQueryFactory queryFactory;
+	@Autowired MemberQueryRepository memberQueryRepository;
+
+	@BeforeAll
+	void seed() {
+		BenchmarkSupport.seed(jdbcTemplate, 10, MEMBER_COUNT);
+	}
+
+	@AfterAll
+	void clear() {
+		BenchmarkSupport.clear(jdbcTemplate);
+	}
+
+	@Test
+	void querydslVsShapeCache() {
+		System.out.println("iterations = " + ITERATIONS);
+		System.out.println("\tcpu(ns/op)\talloc(B/op)");
+
+		long[] before = BenchmarkSupport.cpuAndAllocationPerOp(ITERATIONS, i -> querydslSearch(condition(i)));
+		long[] after = BenchmarkSupport.cpuAndAllocationPerOp(ITERATIONS, i -> memberQueryRepository.search(condition(i)));
+
+		System.out.println("querydsl\t" + before[0] + "\t" + before[1]);
+		System.out.println("shape\t" + after[0] + "\t" + after[1]);
+	}
+
+	private static MemberSearchCondition condition(int i) {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername("member" + (i % MEMBER_COUNT));
+		condition.setTeamName("team" + (i % 10));
+		condition.setAgeGoe(i % 100);
+		return condition;
+	}
+
+	// 캐시 전 MemberQueryRepository.search 와 같은 쿼리
+	private List<MemberTeamDto> querydslSearch(MemberSearchCondition condition) {
+		JPAQuery<MemberTeamDto> query = queryFactory
+				.select(new QMemberTeamDto(
+						member.id.as("memberId"),
+						member.username,
+						member.age,
+						team.id.as("teamId"),
+						team.name.as("teamName")
+				))
+				.from(member)
+				.where(searchCondition(condition));
+		return leftJoinIfUsed(query, member.team, team).fetch();
+	}
+}
@@ -0,0 +1,80 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.MemberTestRepository;
+
+// ./gradlew benchmark 로 실행 (기본 test 에서는 빠진다)
+// 쓰기 트랜잭션 안에서 Member 100k 건을 일반 조회(off)와 읽기 전용 조회(on)로 읽었을때
+// 남아있는 힙(GC 후 사용량 차이)과 em.flush() 한번 걸리는 시간 비교
+// 힙은 영속성 컨텍스트(엔티티 + 스냅샷 + EntityEntry)까지 포함한 값이다.
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadOnlyQueryBenchmarkTest {
+
+	static final int MEMBER_COUNT = Integer.getInteger("benchmark.members", 100_000);
+	static final int REPEAT = 3;
+
+	@Autowired JdbcTemplate jdbcTemplate;
+	@Autowired EntityManager em;
+	@Autowired PlatformTransactionManager transactionManager;
+	@Autowired MemberTestRepository memberTestRepository;
+
+	@BeforeAll
+	void seed() {
+		BenchmarkSupport.seed(jdbcTemplate, 10, MEMBER_COUNT);
+	}
+
+	@AfterAll
+	void clear() {
+		BenchmarkSupport.clear(jdbcTemplate);
+	}
+
+	@Test
+	void heapAndFlush() {
+		System.out.println("members = " + MEMBER_COUNT);
+		System.out.println("mode\theap(MB)\tbytes/member\tflush(ms)");
+		for (int i = 0; i < REPEAT; i++) { // 마지막 회차가 워밍업이 끝난 값
+			measure("off", memberTestRepository::basicSelectFrom);
+			measure("on", memberTestRepository::basicSelectFromReadOnly);
+		}
+	}
+
+	private void measure(String mode, Supplier<List<Member>> query) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			long before = usedHeapAfterGc();
+			List<Member> members = query.get();
+			long heap = usedHeapAfterGc() - before;
+
+			long start = System.nanoTime();
+			em.flush(); // 바뀐게 없으니 update 는 안나가고 dirty checking 시간만 잰다
+			long flushMillis = (System.nanoTime() - start) / 1_000_000;
+
+			System.out.println(mode + "\t" + heap / (1024 * 1024) + "\t" + heap / members.size() + "\t" + flushMillis);
+			status.setRollbackOnly();
+		});
+	}
+
+	private static long usedHeapAfterGc() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+}
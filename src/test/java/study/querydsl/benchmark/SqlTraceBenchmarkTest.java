@@ -0,0 +1,87 @@
+package study.querydsl.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+// ./gradlew benchmark 로 실행 (기본 test 에서는 빠진다)
+// /api/v2/members 처리량(요청/초)을 SQL 로그 방식별로 비교
+// p6spy: 모든 SQL 을 포맷해서 찍는다 / sampled: SqlTracer 로 1% 만 / off: 둘다 끔
+// 설정마다 스프링 컨텍스트가 달라야해서 하위 클래스로 나눴다. 출력된 요청/초를 비교하면 된다.
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+abstract class SqlTraceBenchmarkTest {
+
+	static final int MEMBER_COUNT = Integer.getInteger("benchmark.members", 10_000);
+	static final int REQUESTS = Integer.getInteger("benchmark.requests", 5_000);
+	static final int PAGE_SIZE = 20;
+
+	@Autowired JdbcTemplate jdbcTemplate;
+	@Autowired MockMvc mockMvc;
+
+	@BeforeAll
+	void seed() {
+		BenchmarkSupport.seed(jdbcTemplate, 10, MEMBER_COUNT);
+	}
+
+	@AfterAll
+	void clear() {
+		BenchmarkSupport.clear(jdbcTemplate);
+	}
+
+	@Test
+	void throughput() throws Exception {
+		for (int i = 0; i < REQUESTS / 10; i++) { // 워밍업
+			request(i);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < REQUESTS; i++) {
+			request(i);
+		}
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		System.out.println(getClass().getSimpleName() + "\trequests/s = " + Math.round(REQUESTS / seconds));
+	}
+
+	// count 캐시에 안걸리도록 조건과 페이지를 매번 바꾼다
+	private void request(int i) throws Exception {
+		mockMvc.perform(get("/api/v2/members")
+						.param("ageGoe", String.valueOf(i % 100))
+						.param("page", String.valueOf(i % 10))
+						.param("size", String.valueOf(PAGE_SIZE)))
+				.andExpect(status().isOk());
+	}
+
+	@SpringBootTest(properties = {
+			"decorator.datasource.enabled=true",
+			"decorator.datasource.p6spy.enable-logging=true",
+			"member.sql-trace.enabled=false"
+	})
+	static class P6spy extends SqlTraceBenchmarkTest {
+	}
+
+	@SpringBootTest(properties = {
+			"decorator.datasource.enabled=false",
+			"member.sql-trace.enabled=true",
+			"member.sql-trace.sample-rate=0.01"
+	})
+	static class Sampled extends SqlTraceBenchmarkTest {
+	}
+
+	@SpringBootTest(properties = {
+			"decorator.datasource.enabled=false",
+			"member.sql-trace.enabled=false"
+	})
+	static class Off extends SqlTraceBenchmarkTest {
+	}
+}
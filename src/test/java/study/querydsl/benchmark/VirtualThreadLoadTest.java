@@ -0,0 +1,137 @@
+package study.querydsl.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// ./gradlew benchmark 로 실행 (기본 test 에서는 빠진다)
+// 톰캣 스레드풀(platform)과 요청당 가상 스레드(virtual)에서 /api/v1/members, /api/v2/members 처리량과 p99 비교
+// MockMvc 는 톰캣을 안거치니 실제 포트로 띄우고 클라이언트 CLIENTS 개가 쉬지않고 요청을 보낸다.
+// 실행 중 503(ConcurrencyLimitFilter 거절)은 따로 센다. Java 17 이면 virtual 도 톰캣 스레드풀로 돈다.
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class VirtualThreadLoadTest {
+
+	static final int MEMBER_COUNT = Integer.getInteger("benchmark.members", 10_000);
+	static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+	static final int CLIENTS = Integer.getInteger("benchmark.clients", 256);
+
+	@Autowired JdbcTemplate jdbcTemplate;
+	@LocalServerPort int port;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeAll
+	void seed() {
+		BenchmarkSupport.seed(jdbcTemplate, 10, MEMBER_COUNT);
+	}
+
+	@AfterAll
+	void clear() {
+		BenchmarkSupport.clear(jdbcTemplate);
+	}
+
+	@Test
+	void v1() throws Exception {
+		run("/api/v1/members", i -> "teamName=team" + (i % 10) + "&ageGoe=" + (i % 100));
+	}
+
+	@Test
+	void v2() throws Exception {
+		run("/api/v2/members", i -> "ageGoe=" + (i % 100) + "&page=" + (i % 10) + "&size=20");
+	}
+
+	private void run(String path, Query query) throws Exception {
+		load(path, query, REQUESTS / 10); // 워밍업
+		long start = System.nanoTime();
+		Result result = load(path, query, REQUESTS);
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+		long[] latencies = result.latencies();
+		Arrays.sort(latencies);
+		System.out.println(getClass().getSimpleName() + "\t" + path
+				+ "\trequests/s = " + Math.round(REQUESTS / seconds)
+				+ "\tp50(ms) = " + percentile(latencies, 0.50)
+				+ "\tp99(ms) = " + percentile(latencies, 0.99)
+				+ "\trejected = " + result.rejected());
+		assertThat(result.rejected()).isLessThan(REQUESTS);
+	}
+
+	private Result load(String path, Query query, int requests) throws Exception {
+		long[] latencies = new long[requests];
+		AtomicLong rejected = new AtomicLong();
+		AtomicLong next = new AtomicLong();
+		ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+		try {
+			List<Future<?>> futures = new ArrayList<>(CLIENTS);
+			for (int c = 0; c < CLIENTS; c++) {
+				futures.add(clients.submit(() -> {
+					for (int i = (int) next.getAndIncrement(); i < requests; i = (int) next.getAndIncrement()) {
+						HttpRequest request = HttpRequest.newBuilder(
+								URI.create("http://localhost:" + port + path + "?" + query.of(i))).build();
+						long start = System.nanoTime();
+						HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+						latencies[i] = System.nanoTime() - start;
+						if (response.statusCode() == 503) {
+							rejected.incrementAndGet();
+						} else {
+							assertThat(response.statusCode()).isEqualTo(200);
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			clients.shutdownNow();
+		}
+		return new Result(latencies, rejected.get());
+	}
+
+	private static String percentile(long[] sorted, double p) {
+		return String.format("%.1f", sorted[(int) Math.ceil(p * sorted.length) - 1] / 1_000_000.0);
+	}
+
+	interface Query {
+		String of(int i);
+	}
+
+	record Result(long[] latencies, long rejected) {
+	}
+
+	@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+			"member.web.virtual-threads=false",
+			"member.sql-trace.enabled=false"
+	})
+	static class Platform extends VirtualThreadLoadTest {
+	}
+
+	@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+			"member.web.virtual-threads=true",
+			"member.sql-trace.enabled=false"
+	})
+	static class Virtual extends VirtualThreadLoadTest {
+	}
+}
@@ -0,0 +1,79 @@
+package study.querydsl.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+@SpringBootTest
+@Transactional
+class MemberCountCacheTest {
+
+	@Autowired EntityManager em;
+	@Autowired MemberCountCache memberCountCache;
+	@Autowired MemberJpaRepository memberJpaRepository;
+
+	Team teamA;
+
+	@BeforeEach
+	void before() {
+		teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+		em.flush();
+		memberCountCache.invalidateAll();
+	}
+
+	@Test
+	void sameConditionHitsCache() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+
+		long missBefore = memberCountCache.stats().missCount();
+		long hitBefore = memberCountCache.stats().hitCount();
+
+		assertThat(memberCountCache.get(condition)).isEqualTo(2);
+		// "" 는 조건 없음과 같은 키
+		condition.setUsername("");
+		assertThat(memberCountCache.get(condition)).isEqualTo(2);
+
+		assertThat(memberCountCache.stats().missCount() - missBefore).isEqualTo(1);
+		assertThat(memberCountCache.stats().hitCount() - hitBefore).isEqualTo(1);
+	}
+
+	@Test
+	void writeInvalidates() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		assertThat(memberCountCache.get(condition)).isEqualTo(4);
+
+		memberJpaRepository.save(new Member("member5", 50, teamA));
+		em.flush(); // insert SQL 이 나갈때 비워진다
+		assertThat(memberCountCache.get(condition)).isEqualTo(5);
+
+		em.createQuery("delete from Member m where m.age >= 40").executeUpdate(); // 벌크 연산도 마찬가지
+		assertThat(memberCountCache.get(condition)).isEqualTo(3);
+	}
+
+	@Test
+	void writtenTable() {
+		assertThat(MemberTableWriteInspector.writtenTable("insert into member (age,team_id,username,member_id) values (?,?,?,?)")).isEqualTo("member");
+		assertThat(MemberTableWriteInspector.writtenTable("/* update Member m set m.age = 1 */ update member set age=1")).isEqualTo("member");
+		assertThat(MemberTableWriteInspector.writtenTable("delete from team")).isEqualTo("team");
+		assertThat(MemberTableWriteInspector.writtenTable("select m1_0.member_id from member m1_0")).isNull();
+		assertThat(MemberTableWriteInspector.writtenTable("insert into hello (id) values (?)")).isNull();
+		assertThat(MemberTableWriteInspector.writtenTable("update member_history set x=1")).isNull();
+	}
+}
@@ -0,0 +1,82 @@
+package study.querydsl.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+@SpringBootTest
+@Transactional
+class MemberSearchCacheTest {
+
+	static final String ENDPOINT = "/api/v1/members";
+
+	@Autowired EntityManager em;
+	@Autowired MemberSearchCache memberSearchCache;
+	@Autowired MemberJpaRepository memberJpaRepository;
+	@Autowired MemberRepository memberRepository;
+
+	Team teamA;
+
+	@BeforeEach
+	void before() {
+		teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.flush();
+		memberSearchCache.invalidateAll();
+	}
+
+	@Test
+	void sameConditionHitsCache() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+
+		long missBefore = memberSearchCache.stats().missCount();
+		long hitBefore = memberSearchCache.stats().hitCount();
+
+		assertThat(memberSearchCache.get(ENDPOINT, condition, memberJpaRepository::search)).hasSize(2);
+		condition.setUsername(" "); // 조건 없음과 같은 키
+		assertThat(memberSearchCache.get(ENDPOINT, condition, memberJpaRepository::search)).hasSize(2);
+
+		assertThat(memberSearchCache.stats().missCount() - missBefore).isEqualTo(1);
+		assertThat(memberSearchCache.stats().hitCount() - hitBefore).isEqualTo(1);
+	}
+
+	@Test
+	void disabledEndpointSkipsCache() {
+		long requestBefore = memberSearchCache.stats().requestCount();
+		memberSearchCache.get("/api/v9/members", new MemberSearchCondition(), memberJpaRepository::search);
+		assertThat(memberSearchCache.stats().requestCount()).isEqualTo(requestBefore);
+	}
+
+	@Test
+	void writeInvalidates() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		assertThat(memberSearchCache.get(ENDPOINT, condition, memberJpaRepository::search)).hasSize(3);
+
+		memberJpaRepository.save(new Member("member4", 40, teamA));
+		em.flush();
+		assertThat(memberSearchCache.get(ENDPOINT, condition, memberJpaRepository::search)).hasSize(4);
+
+		memberRepository.save(new Member("member5", 50, teamA));
+		em.flush();
+		assertThat(memberSearchCache.get(ENDPOINT, condition, memberJpaRepository::search)).hasSize(5);
+
+		em.createQuery("delete from Member m where m.age >= 40").executeUpdate();
+		assertThat(memberSearchCache.get(ENDPOINT, condition, memberJpaRepository::search)).hasSize(3);
+	}
+}
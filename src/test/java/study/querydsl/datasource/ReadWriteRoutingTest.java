@@ -0,0 +1,113 @@
+package study.querydsl.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.datasource.ReadWriteRoutingDataSource.Target;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberQueryRepository;
+import study.querydsl.repository.support.MemberTestRepository;
+
+// 메모리 H2 두개를 primary / replica 로 띄운다.
+// 복제는 없으니 primary 스키마를 SCRIPT 로 떠서 replica 에 만들고, 양쪽에 다른 회원을 넣어서 어디서 읽었는지 본다.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+		"member.datasource.routing=true",
+		"member.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+		"member.search-cache.endpoints="
+})
+class ReadWriteRoutingTest {
+
+	@Autowired DataSource dataSource;
+	@Autowired PlatformTransactionManager transactionManager;
+	@Autowired MemberQueryRepository memberQueryRepository;
+	@Autowired MemberTestRepository memberTestRepository;
+
+	private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:primary", "sa", ""));
+	private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:replica", "sa", ""));
+
+	@BeforeEach
+	void before() {
+		List<String> schema = primary.queryForList("script nodata", String.class);
+		replica.execute("drop all objects");
+		schema.stream()
+				.filter(sql -> !sql.startsWith("--") && !sql.startsWith("CREATE USER"))
+				.forEach(replica::execute);
+		primary.update("insert into member (member_id, username, age) values (1, 'onPrimary', 10)");
+		replica.update("insert into member (member_id, username, age) values (1, 'onReplica', 10)");
+	}
+
+	@AfterEach
+	void after() {
+		primary.update("delete from member");
+	}
+
+	@Test
+	void readOnlyTransactionReadsReplica() {
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+
+		List<String> fromReadOnly = readOnly.execute(status -> usernames());
+		List<String> fromReadWrite = new TransactionTemplate(transactionManager).execute(status -> usernames());
+
+		assertThat(fromReadOnly).containsExactly("onReplica");
+		assertThat(fromReadWrite).containsExactly("onPrimary");
+	}
+
+	@Test
+	void repositoryReadsAreReadOnly() {
+		assertThat(usernames()).containsExactly("onReplica"); // MemberQueryRepository.search 는 @Transactional(readOnly = true)
+	}
+
+	@Test
+	void parallelCountReadsSameReplica() {
+		replica.update("insert into member (member_id, username, age) values (2, 'onReplica2', 20)");
+
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+
+		// count 는 PageQueryExecutor 스레드에서 돈다
+		Page<Member> page = readOnly.execute(
+				status -> memberTestRepository.applyPagination(new MemberSearchCondition(), PageRequest.of(0, 1)));
+
+		assertThat(page.getContent()).extracting("username").containsExactly("onReplica");
+		assertThat(page.getTotalElements()).isEqualTo(2); // primary 에서 셌으면 1
+	}
+
+	@Test
+	void lagTolerance() {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+				new DriverManagerDataSource("jdbc:h2:mem:primary"), new DriverManagerDataSource("jdbc:h2:mem:replica"),
+				Duration.ofMinutes(1));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try {
+			assertThat(routing.currentTarget()).isEqualTo(Target.REPLICA);
+			routing.markWrite();
+			assertThat(routing.currentTarget()).isEqualTo(Target.PRIMARY);
+		} finally {
+			TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		}
+	}
+
+	private List<String> usernames() {
+		return memberQueryRepository.search(new MemberSearchCondition()).stream()
+				.map(MemberTeamDto::getUsername)
+				.toList();
+	}
+}
@@ -0,0 +1,120 @@
+package study.querydsl.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import javax.cache.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheAccessImpl;
+import org.hibernate.cache.spi.support.DomainDataRegionTemplate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 2차 캐시는 트랜잭션(영속성 컨텍스트)을 넘어서 쓰이는걸 봐야하니 @Transactional 대신 매번 새 트랜잭션으로 조회한다.
+@SpringBootTest
+class TeamCacheTest {
+
+	@Autowired EntityManager em;
+	@Autowired EntityManagerFactory emf;
+	@Autowired TransactionTemplate tx;
+
+	Statistics statistics;
+	Long teamId;
+
+	@BeforeEach
+	void before() {
+		teamId = tx.execute(status -> {
+			Team teamA = new Team("teamA");
+			em.persist(teamA);
+			em.persist(new Member("member1", 10, teamA));
+			em.persist(new Member("member2", 20, teamA));
+			return teamA.getId();
+		});
+		emf.getCache().evictAll();
+		statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@AfterEach
+	void after() {
+		tx.executeWithoutResult(status -> {
+			em.createQuery("delete from Member").executeUpdate();
+			em.createQuery("delete from Team").executeUpdate();
+		});
+	}
+
+	// application.conf 의 caffeine.jcache.team 설정으로 만들어졌는지 / 못찾으면 컨텍스트가 안뜨거나 기본값으로 만들어진다
+	@Test
+	void regionConfiguredFromApplicationConf() {
+		DomainDataRegionTemplate region = (DomainDataRegionTemplate) emf.unwrap(SessionFactoryImplementor.class)
+				.getCache().getRegion("team");
+		Cache<?, ?> cache = ((JCacheAccessImpl) region.getCacheStorageAccess()).getUnderlyingCache();
+
+		CaffeineConfiguration<?, ?> configuration = cache.getConfiguration(CaffeineConfiguration.class);
+		assertThat(configuration.getMaximumSize()).hasValue(1000);
+		assertThat(configuration.getExpireAfterWrite()).hasValue(Duration.ofMinutes(10).toNanos());
+	}
+
+	@Test
+	void findByIdHitsCache() {
+		tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+		long statements = statistics.getPrepareStatementCount();
+
+		for (int i = 0; i < 2; i++) {
+			tx.executeWithoutResult(status -> assertThat(em.find(Team.class, teamId).getName()).isEqualTo("teamA"));
+		}
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements); // DB 에서는 처음 한번만
+		EntityStatistics teamStatistics = statistics.getEntityStatistics(Team.class.getName());
+		assertThat(teamStatistics.getCacheMissCount()).isEqualTo(1);
+		assertThat(teamStatistics.getCacheHitCount()).isEqualTo(2);
+	}
+
+	@Test
+	void lazyLoadHitsCache() {
+		for (String username : new String[]{"member1", "member2", "member1"}) {
+			tx.executeWithoutResult(status -> {
+				Member member = em.createQuery("select m from Member m where m.username = :username", Member.class)
+						.setParameter("username", username)
+						.getSingleResult();
+				assertThat(member.getTeam().getName()).isEqualTo("teamA"); // 지연로딩
+			});
+		}
+
+		// member 조회 3번 + team 은 처음 한번만
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+		EntityStatistics teamStatistics = statistics.getEntityStatistics(Team.class.getName());
+		assertThat(teamStatistics.getCacheMissCount()).isEqualTo(1);
+		assertThat(teamStatistics.getCacheHitCount()).isEqualTo(2);
+	}
+
+	@Test
+	void bulkUpdateEvictsRegion() {
+		tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+		assertThat(emf.getCache().contains(Team.class, teamId)).isTrue();
+
+		tx.executeWithoutResult(status -> em.createQuery("update Team t set t.name = 'teamB'").executeUpdate());
+		assertThat(emf.getCache().contains(Team.class, teamId)).isFalse();
+
+		tx.executeWithoutResult(status -> assertThat(em.find(Team.class, teamId).getName()).isEqualTo("teamB"));
+	}
+
+	// member 테이블만 바꾸는 벌크 연산은 Team 영역을 건드리지 않는다
+	@Test
+	void memberBulkUpdateKeepsTeamRegion() {
+		tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+
+		tx.executeWithoutResult(status -> em.createQuery("update Member m set m.age = m.age + 1").executeUpdate());
+		assertThat(emf.getCache().contains(Team.class, teamId)).isTrue();
+	}
+}
@@ -0,0 +1,121 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.AsyncQueryExecutor;
+
+// 다른 스레드에서 조회하니 데이터를 커밋해두고 끝나면 지운다 (@Transactional 안씀)
+// properties 를 따로 주면 컨텍스트가 하나 더 떠서 같은 DB 에 ddl-auto create 를 다시 하니 기본 설정(timeout 5s) 그대로 쓴다
+@SpringBootTest
+class MemberAsyncSearchTest {
+
+	@Autowired EntityManager em;
+	@Autowired PlatformTransactionManager transactionManager;
+	@Autowired MemberRepository memberRepository;
+	@Autowired AsyncQueryExecutor asyncQueryExecutor;
+
+	@BeforeEach
+	void before() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			Team teamA = new Team("teamA");
+			Team teamB = new Team("teamB");
+			em.persist(teamA);
+			em.persist(teamB);
+			em.persist(new Member("member1", 10, teamA));
+			em.persist(new Member("member2", 20, teamA));
+			em.persist(new Member("member3", 30, teamB));
+			em.persist(new Member("member4", 40, teamB));
+		});
+	}
+
+	@AfterEach
+	void after() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			em.createQuery("delete from Member").executeUpdate();
+			em.createQuery("delete from Team").executeUpdate();
+		});
+	}
+
+	@Test
+	void overlappedSearches() {
+		MemberSearchCondition teamA = new MemberSearchCondition();
+		teamA.setTeamName("teamA");
+		MemberSearchCondition older = new MemberSearchCondition();
+		older.setAgeGoe(30);
+
+		CompletableFuture<List<MemberTeamDto>> list = memberRepository.searchAsync(teamA);
+		CompletableFuture<Page<MemberTeamDto>> page = memberRepository.searchComplexAsync(older, PageRequest.of(0, 1));
+
+		assertThat(list.join()).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+		assertThat(page.join().getTotalElements()).isEqualTo(2);
+		assertThat(page.join().getContent()).hasSize(1);
+		assertThat(list.join()).extracting("username")
+				.containsExactlyInAnyOrderElementsOf(memberRepository.search(teamA).stream().map(MemberTeamDto::getUsername).toList());
+	}
+
+	@Test
+	void runsInReadOnlyTransactionOnOtherThread() {
+		Thread caller = Thread.currentThread();
+
+		boolean[] state = asyncQueryExecutor.submit(() -> new boolean[]{
+				Thread.currentThread() != caller,
+				TransactionSynchronizationManager.isActualTransactionActive(),
+				TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+		}).join();
+
+		assertThat(state).containsExactly(true, true, true);
+	}
+
+	@Test
+	void timeout() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Object> future = asyncQueryExecutor.submit(() -> {
+			await(release);
+			return null;
+		});
+
+		assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(TimeoutException.class);
+		release.countDown();
+	}
+
+	@Test
+	void cancelledBeforeRunning() {
+		CompletableFuture<List<MemberTeamDto>> future = memberRepository.searchAsync(new MemberSearchCondition());
+
+		future.cancel(true);
+
+		assertThat(future).isCancelled();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberFieldRow;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberFields;
+
+@SpringBootTest
+@Transactional
+class MemberFieldsTest {
+
+	@Autowired EntityManager em;
+	@Autowired MemberRepository memberRepository;
+	@Autowired ObjectMapper objectMapper;
+
+	@BeforeEach
+	void before() {
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30));
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	void selectsOnlyRequestedColumns() throws Exception {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(20);
+
+		List<MemberFieldRow> rows = memberRepository.searchFields(condition, MemberFields.of("username, age"));
+
+		assertThat(rows).extracting(row -> row.get("username")).containsExactlyInAnyOrder("member2", "member3");
+		assertThat(objectMapper.writeValueAsString(rows.get(0))).matches("\\{\"username\":\"member\\d\",\"age\":\\d+}");
+	}
+
+	@Test
+	void teamIdWithoutJoinKeepsMembersWithoutTeam() {
+		List<MemberFieldRow> rows = memberRepository.searchFields(new MemberSearchCondition(), MemberFields.of("username,teamId"));
+
+		assertThat(rows).hasSize(3);
+		assertThat(rows).filteredOn(row -> row.get("teamId") == null).hasSize(1);
+	}
+
+	@Test
+	void pagedWithTeamName() {
+		Page<MemberFieldRow> page = memberRepository.searchFields(new MemberSearchCondition(),
+				MemberFields.of("teamName,username"), PageRequest.of(0, 2, Sort.by("username")));
+
+		assertThat(page.getContent()).extracting(row -> row.get("username")).containsExactly("member1", "member2");
+		assertThat(page.getContent()).extracting(row -> row.get("teamName")).containsOnly("teamA");
+		assertThat(page.getTotalElements()).isEqualTo(3);
+	}
+
+	@Test
+	void unknownField() {
+		assertThatThrownBy(() -> MemberFields.of("username,password"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,80 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+// 청크마다 커밋하는걸 봐야해서 @Transactional 롤백 대신 직접 넣고 지운다.
+@SpringBootTest
+class MemberJpaRepositoryBulkTest {
+
+	@Autowired EntityManager em;
+	@Autowired TransactionTemplate tx;
+	@Autowired MemberJpaRepository memberJpaRepository;
+
+	List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void before() {
+		tx.executeWithoutResult(status -> {
+			for (int i = 1; i <= 5; i++) {
+				Member member = new Member("member" + i, i * 10);
+				em.persist(member);
+				ids.add(member.getId());
+			}
+		});
+	}
+
+	@AfterEach
+	void after() {
+		tx.executeWithoutResult(status -> em.createQuery("delete from Member").executeUpdate());
+	}
+
+	@Test
+	void bulkUpdateInChunks() {
+		List<Long> progress = new ArrayList<>();
+
+		tx.executeWithoutResult(status -> {
+			Member affected = em.find(Member.class, ids.get(0)); // age 10 -> 바뀜
+			Member untouched = em.find(Member.class, ids.get(4)); // age 50 -> 그대로
+
+			long count = memberJpaRepository.bulkUpdate(member.age.lt(40),
+					update -> update.set(member.age, member.age.add(100)),
+					2, (chunks, lastId, total) -> progress.add(total));
+
+			assertThat(count).isEqualTo(3);
+			assertThat(progress).containsExactly(2L, 3L); // 2건, 1건 청크로 나눠서 커밋
+
+			// 바뀐 member 만 영속성 컨텍스트에서 빠진다
+			assertThat(em.contains(affected)).isFalse();
+			assertThat(em.contains(untouched)).isTrue();
+			assertThat(em.find(Member.class, ids.get(0)).getAge()).isEqualTo(110);
+		});
+
+		// 청크마다 커밋되어서 바깥 트랜잭션과 상관없이 반영되어 있다
+		List<Integer> ages = tx.execute(status -> em.createQuery("select m.age from Member m order by m.id", Integer.class)
+				.getResultList());
+		assertThat(ages).containsExactly(110, 120, 130, 40, 50);
+	}
+
+	@Test
+	void bulkDeleteInChunks() {
+		long count = memberJpaRepository.bulkDelete(member.age.goe(20), 3, (chunks, lastId, total) -> {
+		});
+
+		assertThat(count).isEqualTo(4);
+		List<String> usernames = tx.execute(status -> em.createQuery("select m.username from Member m", String.class)
+				.getResultList());
+		assertThat(usernames).containsExactly("member1");
+	}
+}
@@ -0,0 +1,115 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import jakarta.persistence.EntityManager;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class MemberQueryRepositoryTest {
+
+	@Autowired EntityManager em;
+	@Autowired MemberQueryRepository memberQueryRepository;
+
+	@BeforeEach
+	void before() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+		em.persist(new Member("member5", 50)); // 팀 없는 회원도 left join 과 같은 개수로 세져야 한다
+	}
+
+	@Test
+	void countWithoutTeamCondition() {
+		assertCount(new MemberSearchCondition(), false, 5);
+
+		MemberSearchCondition username = new MemberSearchCondition();
+		username.setUsername("member1");
+		assertCount(username, false, 1);
+
+		MemberSearchCondition age = new MemberSearchCondition();
+		age.setAgeGoe(20);
+		age.setAgeLoe(40);
+		assertCount(age, false, 3);
+
+		MemberSearchCondition blankTeam = new MemberSearchCondition();
+		blankTeam.setTeamName(" ");
+		assertCount(blankTeam, false, 5);
+	}
+
+	@Test
+	void countWithTeamCondition() {
+		MemberSearchCondition team = new MemberSearchCondition();
+		team.setTeamName("teamB");
+		assertCount(team, true, 2);
+
+		MemberSearchCondition all = new MemberSearchCondition();
+		all.setUsername("member4");
+		all.setTeamName("teamB");
+		all.setAgeGoe(35);
+		all.setAgeLoe(40);
+		assertCount(all, true, 1);
+	}
+
+	// select 에 team.name 이 있으니 조건과 상관없이 조인이 붙는다
+	@Test
+	void searchJoinsForTeamColumns() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		String jpql = memberQueryRepository.searchQuery(condition).toString();
+		assertThat(jpql).contains("left join member1.team as team");
+		assertThat(memberQueryRepository.search(condition)).hasSize(5);
+	}
+
+	// 모양별로 캐시된 JPQL 에 값만 바인딩 / 값이 같아도 파라미터 자리가 섞이지 않아야 한다
+	@Test
+	void searchByShape() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(30);
+		condition.setAgeLoe(30);
+		assertThat(memberQueryRepository.search(condition)).extracting("username").containsExactly("member3");
+		assertThat(memberQueryRepository.count(condition)).isEqualTo(1);
+
+		condition.setAgeGoe(10);
+		condition.setAgeLoe(20);
+		condition.setTeamName("teamA");
+		condition.setUsername("teamA");
+		assertThat(memberQueryRepository.search(condition)).isEmpty();
+		condition.setUsername(null);
+		assertThat(memberQueryRepository.search(condition))
+				.extracting("username", "teamName")
+				.containsExactlyInAnyOrder(tuple("member1", "teamA"), tuple("member2", "teamA"));
+	}
+
+	@Test
+	void stream() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(20);
+		try (Stream<MemberTeamDto> result = memberQueryRepository.stream(condition)) {
+			assertThat(result.map(MemberTeamDto::getUsername))
+					.containsExactlyInAnyOrder("member2", "member3", "member4", "member5");
+		}
+	}
+
+	private void assertCount(MemberSearchCondition condition, boolean join, long expected) {
+		String jpql = memberQueryRepository.countQuery(condition).toString();
+		assertThat(jpql).startsWith("select count(*)").contains("from Member member1");
+		assertThat(jpql.contains("join")).isEqualTo(join);
+		assertThat(memberQueryRepository.count(condition)).isEqualTo(expected);
+	}
+}
@@ -1,17 +1,23 @@
 package study.querydsl.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
 import static study.querydsl.entity.QMember.member;
 
 import jakarta.persistence.EntityManager;
+import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberCursorResult;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
@@ -95,6 +101,72 @@ class MemberRepositoryTest {
 		assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
 	}
 
+	@Test
+	void searchSlice() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		Member member1 = new Member("member1", 10, teamA);
+		Member member2 = new Member("member2", 20, teamA);
+		Member member3 = new Member("member3", 30, teamB);
+		Member member4 = new Member("member4", 40, teamB);
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.persist(member4);
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 3));
+		assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+		assertThat(first.hasNext()).isTrue();
+
+		Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(1, 3));
+		assertThat(last.getContent()).extracting("username").containsExactly("member4");
+		assertThat(last.hasNext()).isFalse();
+	}
+
+	@Test
+	void searchByCursor() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		Member member1 = new Member("member1", 10, teamA);
+		Member member2 = new Member("member2", 20, teamA);
+		Member member3 = new Member("member3", 20, teamB);
+		Member member4 = new Member("member4", 40, teamB);
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.persist(member4);
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		MemberCursorResult first = memberRepository.searchByCursor(condition, null, 2);
+		assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2");
+		assertThat(first.isHasNext()).isTrue();
+
+		// 같은 나이(20)가 페이지 경계에 걸려도 id 로 이어서 가져온다
+		MemberCursorResult second = memberRepository.searchByCursor(condition, first.getNextCursor(), 2);
+		assertThat(second.getContent()).extracting("username").containsExactly("member3", "member4");
+		assertThat(second.isHasNext()).isFalse();
+		assertThat(second.getNextCursor()).isNull();
+	}
+
+	@Test
+	void searchByCursorSize() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		assertThatThrownBy(() -> memberRepository.searchByCursor(condition, null, 0))
+				.isInstanceOfAny(IllegalArgumentException.class, InvalidDataAccessApiUsageException.class);
+		// size + 1 이 넘치지 않게 MAX_CURSOR_SIZE 로 자른다
+		assertThat(memberRepository.searchByCursor(condition, null, Integer.MAX_VALUE).isHasNext()).isFalse();
+	}
+
 	@Test
 	void queryDslPredicateExecutorTest() {
 
@@ -120,4 +192,88 @@ class MemberRepositoryTest {
 		// 좋아보이지만 조인불가능이고 서비스가 querydsl 에 의존적이기기 때문에 복잡한 환경에서 사용하기 힘들다.
 	}
 
-}
\ No newline at end of file
+	@Test
+	void searchComplexSorted() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamB));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 20, teamB));
+		em.persist(new Member("member4", 40, teamA));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		Page<MemberTeamDto> byAge = memberRepository.searchComplex(condition,
+				PageRequest.of(0, 4, Sort.by(Sort.Order.desc("age"))));
+		assertThat(byAge.getContent()).extracting("username")
+				.containsExactly("member4", "member3", "member2", "member1"); // 같은 나이는 id desc
+
+		Page<MemberTeamDto> byTeam = memberRepository.searchComplex(condition,
+				PageRequest.of(0, 4, Sort.by("teamName", "username")));
+		assertThat(byTeam.getContent()).extracting("username")
+				.containsExactly("member2", "member4", "member1", "member3");
+
+		assertThatThrownBy(() -> memberRepository.searchComplex(condition, PageRequest.of(0, 4, Sort.by("teamId"))))
+				.isInstanceOfAny(IllegalArgumentException.class, InvalidDataAccessApiUsageException.class);
+	}
+
+	@Test
+	void derivedSearch() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+
+		List<Member> result = memberRepository.findByTeam_NameAndAgeBetween("teamB", 20, 40);
+		assertThat(result).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+
+		Page<Member> page = memberRepository.findByTeam_NameAndAgeBetween("teamA", 10, 20, PageRequest.of(0, 1));
+		assertThat(page.getContent()).hasSize(1);
+		assertThat(page.getTotalElements()).isEqualTo(2);
+	}
+
+	@Test
+	void searchBatch() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+
+		MemberSearchCondition byTeam = new MemberSearchCondition();
+		byTeam.setTeamName("teamA");
+		MemberSearchCondition byAge = new MemberSearchCondition();
+		byAge.setAgeGoe(30);
+		byAge.setAgeLoe(40);
+		MemberSearchCondition sameAsByTeam = new MemberSearchCondition();
+		sameAsByTeam.setTeamName("teamA");
+		sameAsByTeam.setUsername(" "); // 공백은 조건 없음과 같다
+		MemberSearchCondition none = new MemberSearchCondition();
+		none.setUsername("nobody");
+
+		List<List<MemberTeamDto>> result = memberRepository.searchBatch(List.of(byTeam, byAge, sameAsByTeam, none));
+
+		assertThat(result).hasSize(4);
+		assertThat(result.get(0)).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+		assertThat(result.get(1)).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+		assertThat(result.get(2)).isSameAs(result.get(0));
+		assertThat(result.get(3)).isEmpty();
+		assertThat(result.get(1)).containsExactlyInAnyOrderElementsOf(memberRepository.search(byAge)); // 따로 조회한것과 같다
+	}
+
+	@Test
+	void searchBatchLimit() {
+		List<MemberSearchCondition> conditions = Collections.nCopies(51, new MemberSearchCondition());
+
+		assertThatThrownBy(() -> memberRepository.searchBatch(conditions))
+				.isInstanceOfAny(IllegalArgumentException.class, InvalidDataAccessApiUsageException.class);
+	}
+}
@@ -0,0 +1,68 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberTestRepository;
+
+// 쓰기 트랜잭션 안에서 읽기 전용 조회를 섞어 쓸때
+@SpringBootTest
+@Transactional
+class ReadOnlyQueryTest {
+
+	@Autowired EntityManager em;
+	@Autowired MemberJpaRepository memberJpaRepository;
+	@Autowired MemberTestRepository memberTestRepository;
+
+	@BeforeEach
+	void before() {
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	void noSnapshotForReadOnlyEntities() {
+		List<Member> readOnly = memberTestRepository.basicSelectFromReadOnly();
+
+		assertThat(readOnly).hasSize(2).allSatisfy(member -> {
+			assertThat(entry(member).isReadOnly()).isTrue();
+			assertThat(entry(member).getLoadedState()).isNull(); // dirty checking 용 스냅샷이 없다
+		});
+
+		em.clear();
+		assertThat(memberJpaRepository.findAll_QueryDsl()).allSatisfy(member -> {
+			assertThat(entry(member).isReadOnly()).isFalse();
+			assertThat(entry(member).getLoadedState()).isNotNull();
+		});
+	}
+
+	@Test
+	void readOnlyChangesAreNotFlushed() {
+		List<Member> members = memberJpaRepository.searchMemberReadOnly(new MemberSearchCondition());
+		members.forEach(member -> member.setUsername("changed"));
+		em.flush();
+		em.clear();
+
+		assertThat(memberJpaRepository.findAll_QueryDslReadOnly()).extracting("username")
+				.containsExactlyInAnyOrder("member1", "member2");
+	}
+
+	private EntityEntry entry(Member member) {
+		return em.unwrap(SessionImplementor.class).getPersistenceContext().getEntry(member);
+	}
+}
@@ -0,0 +1,96 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberTestRepository;
+
+// 회원 1000명 / 팀 200개 결과에서 팀 이름을 다 읽을때 나가는 SQL 수
+// 배치 로딩이 없으면 1 + 200 번이다.
+@SpringBootTest
+@Transactional
+class TeamBatchLoadTest {
+
+	static final int MEMBER_COUNT = 1_000;
+	static final int TEAM_COUNT = 200;
+
+	@Autowired EntityManager em;
+	@Autowired EntityManagerFactory emf;
+	@Autowired MemberJpaRepository memberJpaRepository;
+	@Autowired MemberTestRepository memberTestRepository;
+
+	Statistics statistics;
+
+	@BeforeEach
+	void before() {
+		Team[] teams = new Team[TEAM_COUNT];
+		for (int i = 0; i < TEAM_COUNT; i++) {
+			teams[i] = new Team("team" + i);
+			em.persist(teams[i]);
+		}
+		for (int i = 0; i < MEMBER_COUNT; i++) {
+			em.persist(new Member("member" + i, i % 100, teams[i % TEAM_COUNT]));
+		}
+		em.flush();
+		em.clear();
+		emf.getCache().evictAll(); // 팀을 2차 캐시가 아니라 DB 에서 읽는지 본다
+		statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void searchMemberThenLoadTeams() {
+		List<Member> members = memberJpaRepository.loadTeams(memberJpaRepository.searchMember(new MemberSearchCondition()));
+
+		assertThat(members).hasSize(MEMBER_COUNT);
+		assertThat(members).allMatch(member -> Hibernate.isInitialized(member.getTeam()));
+		readTeamNames(members);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2); // member 1번 + team in 절 1번
+	}
+
+	@Test
+	void basicSelectThenLoadTeams() {
+		List<Member> members = memberTestRepository.loadTeams(memberTestRepository.basicSelect());
+
+		readTeamNames(members);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void defaultBatchFetchSize() {
+		List<Member> members = memberJpaRepository.findAll_QueryDsl();
+
+		readTeamNames(members);
+		// default_batch_fetch_size(100) 만큼씩 묶여서 member 1번 + team 2번
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1 + TEAM_COUNT / 100);
+	}
+
+	@Test
+	void alreadyInitializedTeamsAreNotReloaded() {
+		List<Member> members = memberJpaRepository.loadTeams(memberJpaRepository.findAll_QueryDsl());
+		long statements = statistics.getPrepareStatementCount();
+
+		memberJpaRepository.loadTeams(members);
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+	}
+
+	private static void readTeamNames(List<Member> members) {
+		for (Member member : members) {
+			assertThat(member.getTeam().getName()).startsWith("team");
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class CountQueryBuilderTest {
+
+	@Autowired EntityManager em;
+	@Autowired JPAQueryFactory queryFactory;
+
+	@BeforeEach
+	void before() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	void dropsOrderByPagingAndUnusedLeftJoin() {
+		JPAQuery<Member> content = queryFactory
+				.selectFrom(member)
+				.leftJoin(member.team, team).fetchJoin()
+				.where(member.age.goe(20))
+				.orderBy(member.username.desc())
+				.offset(1)
+				.limit(2);
+
+		JPAQuery<Long> count = CountQueryBuilder.build(em, content);
+
+		String jpql = count.toString();
+		assertThat(jpql).startsWith("select count(*)").contains("from Member member1");
+		assertThat(jpql).doesNotContain("join", "order by");
+		assertThat(count.fetchOne()).isEqualTo(3);
+	}
+
+	@Test
+	void keepsJoinUsedInWhereWithoutFetch() {
+		JPAQuery<Member> content = queryFactory
+				.selectFrom(member)
+				.leftJoin(member.team, team).fetchJoin()
+				.where(team.name.eq("teamA"));
+
+		JPAQuery<Long> count = CountQueryBuilder.build(em, content);
+
+		String jpql = count.toString();
+		assertThat(jpql).contains("left join member1.team as team").doesNotContain("fetch");
+		assertThat(count.fetchOne()).isEqualTo(2);
+	}
+
+	@Test
+	void countsDistinctRootOnlyWithToManyJoin() {
+		JPAQuery<Team> content = queryFactory
+				.selectFrom(team)
+				.join(team.members, member)
+				.where(member.age.goe(10));
+
+		JPAQuery<Long> count = CountQueryBuilder.build(em, content);
+
+		assertThat(count.toString()).startsWith("select count(distinct team.id)");
+		assertThat(count.fetchOne()).isEqualTo(2); // 회원 4명이지만 팀은 2개
+	}
+
+	@Test
+	void dropsUnusedToManyLeftJoin() {
+		JPAQuery<Team> content = queryFactory
+				.selectFrom(team)
+				.leftJoin(team.members, member).fetchJoin();
+
+		JPAQuery<Long> count = CountQueryBuilder.build(em, content);
+
+		assertThat(count.toString()).startsWith("select count(*)").doesNotContain("join");
+		assertThat(count.fetchOne()).isEqualTo(2);
+	}
+
+	@Test
+	void keepsToManyJoinUsedInProjection() {
+		em.persist(new Team("teamC")); // 회원 없는 팀도 left join 으로 한 row
+		em.flush();
+		JPAQuery<Tuple> content = queryFactory
+				.select(team.name, member.username)
+				.from(team)
+				.leftJoin(team.members, member);
+
+		JPAQuery<Long> count = CountQueryBuilder.build(em, content);
+
+		assertThat(count.toString()).startsWith("select count(*)").contains("left join team.members as member1");
+		assertThat(count.fetchOne()).isEqualTo(5).isEqualTo(content.fetch().size());
+	}
+
+	@Test
+	void countsDistinctProjection() {
+		em.persist(new Member("member5", 10));
+		em.flush();
+		JPAQuery<Integer> content = queryFactory
+				.select(member.age)
+				.distinct()
+				.from(member);
+
+		JPAQuery<Long> count = CountQueryBuilder.build(em, content);
+
+		assertThat(count.toString()).startsWith("select count(distinct member1.age)");
+		assertThat(count.fetchOne()).isEqualTo(4).isEqualTo(content.fetch().size()); // 회원 5명, 나이는 4개
+	}
+
+	@Test
+	void multiColumnDistinctNeedsExplicitCountQuery() {
+		JPAQuery<Tuple> content = queryFactory
+				.select(member.username, member.age)
+				.distinct()
+				.from(member);
+
+		assertThatThrownBy(() -> CountQueryBuilder.build(em, content))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void groupByNeedsExplicitCountQuery() {
+		JPAQuery<String> content = queryFactory
+				.select(team.name)
+				.from(member)
+				.join(member.team, team)
+				.groupBy(team.name);
+
+		assertThatThrownBy(() -> CountQueryBuilder.build(em, content))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,79 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryTest {
+
+	@Autowired EntityManager em;
+	@Autowired MemberTestRepository memberTestRepository;
+
+	@BeforeEach
+	void before() {
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	void applySlicingLastSlice() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		Slice<Member> first = memberTestRepository.applySlicing(condition, PageRequest.of(0, 3, Sort.by("username")));
+		assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+		assertThat(first.hasNext()).isTrue();
+
+		Slice<Member> last = memberTestRepository.applySlicing(condition, PageRequest.of(1, 3, Sort.by("username")));
+		assertThat(last.getContent()).extracting("username").containsExactly("member4");
+		assertThat(last.hasNext()).isFalse();
+	}
+
+	@Test
+	void applySlicingExactMultiple() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		Slice<Member> first = memberTestRepository.applySlicing(condition, PageRequest.of(0, 2, Sort.by("username")));
+		assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2");
+		assertThat(first.hasNext()).isTrue();
+
+		// 4건을 2건씩 / 마지막 슬라이스가 꽉 차도 하나 더 읽어본 결과가 없으니 다음은 없다
+		Slice<Member> last = memberTestRepository.applySlicing(condition, PageRequest.of(1, 2, Sort.by("username")));
+		assertThat(last.getContent()).extracting("username").containsExactly("member3", "member4");
+		assertThat(last.hasNext()).isFalse();
+	}
+
+	@Test
+	void applySlicingEmpty() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamC");
+
+		Slice<Member> empty = memberTestRepository.applySlicing(condition, PageRequest.of(0, 2));
+		assertThat(empty.getContent()).isEmpty();
+		assertThat(empty.hasNext()).isFalse();
+
+		Slice<Member> beyond = memberTestRepository.applySlicing(new MemberSearchCondition(), PageRequest.of(2, 2));
+		assertThat(beyond.getContent()).isEmpty();
+		assertThat(beyond.hasNext()).isFalse();
+	}
+}
@@ -0,0 +1,128 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+@SpringBootTest
+@Transactional
+class QueryMetricsTest {
+
+	@Autowired EntityManager em;
+	@Autowired MeterRegistry meterRegistry;
+	@Autowired MemberJpaRepository memberJpaRepository;
+	@Autowired MemberTestRepository memberTestRepository;
+
+	@BeforeEach
+	void before() {
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		for (int i = 0; i < 30; i++) {
+			em.persist(new Member("member" + i, i, teamA));
+		}
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	void taggedByMethodAndShape() {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+		condition.setAgeGoe(10);
+		long before = timer("MemberJpaRepository.search", "teamName+ageGoe", "none").count();
+
+		memberJpaRepository.search(condition);
+
+		assertThat(timer("MemberJpaRepository.search", "teamName+ageGoe", "none").count()).isEqualTo(before + 1);
+		DistributionSummary rows = meterRegistry.get("member.query.rows")
+				.tags("method", "MemberJpaRepository.search", "shape", "teamName+ageGoe", "page", "none")
+				.summary();
+		assertThat(rows.max()).isEqualTo(20);
+	}
+
+	@Test
+	void pagedQueryRecordsCountAndStatements() {
+		memberTestRepository.applyPagination(new MemberSearchCondition(), PageRequest.of(0, 10));
+
+		Timer count = meterRegistry.get("member.query.count")
+				.tags("method", "MemberTestRepository.applyPagination", "shape", "none", "page", "first", "size", "le20")
+				.timer();
+		DistributionSummary statements = meterRegistry.get("member.query.statements")
+				.tags("method", "MemberTestRepository.applyPagination", "shape", "none", "page", "first")
+				.summary();
+		assertThat(count.count()).isPositive();
+		assertThat(statements.max()).isEqualTo(2); // content + count
+	}
+
+	@Test
+	void pageTagAndHistogramSubset() {
+		Map<String, Boolean> histogram = new HashMap<>();
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		registry.config().meterFilter(new MeterFilter() {
+			@Override
+			public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+				if (id.getName().equals("member.query")) {
+					histogram.put(id.getTag("method") + "/" + id.getTag("page") + "/" + id.getTag("size"),
+							config.isPercentileHistogram());
+				}
+				return config;
+			}
+		});
+		QueryMetrics queryMetrics = new QueryMetrics(registry, Set.of("paged"));
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		queryMetrics.record("paged", condition, PageRequest.of(2, 10), call -> List.of());
+		queryMetrics.record("list", condition, null, call -> List.of());
+
+		// histogram-methods 에 있는 메서드만 켠다
+		assertThat(histogram).containsOnly(
+				entry("paged/deep/le20", true),
+				entry("list/none/none", false));
+	}
+
+	@Test
+	void sizeTag() {
+		assertThat(QueryMetrics.sizeTag(null)).isZero();
+		assertThat(QueryMetrics.sizeTag(Pageable.unpaged())).isZero();
+		assertThat(QueryMetrics.sizeTag(PageRequest.of(0, 20))).isEqualTo(1);
+		assertThat(QueryMetrics.sizeTag(PageRequest.of(0, 21))).isEqualTo(2);
+		assertThat(QueryMetrics.sizeTag(PageRequest.of(0, 1000))).isEqualTo(3);
+		assertThat(QueryMetrics.sizeTag(PageRequest.of(0, 1001))).isEqualTo(4);
+	}
+
+	@Test
+	void shapeTag() {
+		assertThat(QueryMetrics.shapeTag(0)).isEqualTo("none");
+		assertThat(QueryMetrics.shapeTag(MemberSearchPredicates.USERNAME | MemberSearchPredicates.AGE_LOE))
+				.isEqualTo("username+ageLoe");
+	}
+
+	private Timer timer(String method, String shape, String page) {
+		return Timer.builder("member.query")
+				.tags("method", method, "shape", shape, "page", page, "size", "none")
+				.register(meterRegistry);
+	}
+}
@@ -0,0 +1,72 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class ShapeQueryCacheTest {
+
+	@Autowired EntityManager em;
+
+	JPAQueryFactory queryFactory;
+
+	@BeforeEach
+	void before() {
+		queryFactory = new JPAQueryFactory(em);
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamA));
+		em.flush();
+		em.clear();
+	}
+
+	// 조건을 sample 과 반대 순서로 넣어도 ?1, ?2 가 필드 이름으로 바인딩된다
+	@Test
+	void bindsByFieldNotByOrder() {
+		ShapeQueryCache<Member> cache = new ShapeQueryCache<>(condition -> queryFactory
+				.selectFrom(member)
+				.where(
+						MemberSearchPredicates.ageLoe(condition.getAgeLoe()),
+						MemberSearchPredicates.ageGoe(condition.getAgeGoe())
+				));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(15);
+		condition.setAgeLoe(25);
+
+		assertThat(cache.fetch(em, condition)).extracting("username").containsExactly("member2");
+		// 두번째 부터는 캐시된 JPQL 에 값만 바꿔 넣는다
+		condition.setAgeLoe(35);
+		assertThat(cache.fetch(em, condition)).extracting("username").containsExactlyInAnyOrder("member2", "member3");
+	}
+
+	// 조건 필드가 JPQL 파라미터로 안들어가면 잘못된 값을 바인딩하지 않고 바로 실패한다
+	@Test
+	void failsWhenFieldIsNotSerialized() {
+		ShapeQueryCache<Member> cache = new ShapeQueryCache<>(condition -> queryFactory
+				.selectFrom(member)
+				.where(MemberSearchPredicates.usernameEq(condition.getUsername())));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername("member1");
+		condition.setAgeGoe(15);
+
+		assertThatThrownBy(() -> cache.fetch(em, condition))
+				.isInstanceOf(IllegalStateException.class);
+	}
+}
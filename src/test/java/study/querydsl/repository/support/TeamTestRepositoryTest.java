@@ -0,0 +1,75 @@
+package study.querydsl.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class TeamTestRepositoryTest {
+
+	@Autowired EntityManager em;
+	@Autowired EntityManagerFactory emf;
+	@Autowired TeamTestRepository teamTestRepository;
+
+	@BeforeEach
+	void before() {
+		for (int i = 0; i < 5; i++) {
+			Team team = new Team("team" + i);
+			em.persist(team);
+			for (int j = 0; j < 3; j++) {
+				em.persist(new Member("member" + i + "_" + j, j, team));
+			}
+		}
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	void pageWithFetchJoinedMembers() {
+		Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		Page<Team> page = teamTestRepository.searchWithMembers(null,
+				PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "name")));
+
+		assertThat(page.getContent()).extracting("name").containsExactly("team2", "team1"); // id 조회 순서 그대로
+		assertThat(page.getTotalElements()).isEqualTo(5);
+		for (Team team : page.getContent()) {
+			assertThat(Hibernate.isInitialized(team.getMembers())).isTrue();
+			assertThat(team.getMembers()).hasSize(3);
+		}
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3); // id 페이지, 페치조인, count
+	}
+
+	@Test
+	void filterDoesNotDuplicateTeams() {
+		Page<Team> page = teamTestRepository.searchWithMembers("member3_1", PageRequest.of(0, 10));
+
+		assertThat(page.getContent()).extracting("name").containsExactly("team3");
+		assertThat(page.getContent().get(0).getMembers()).hasSize(3);
+		assertThat(page.getTotalElements()).isEqualTo(1);
+	}
+
+	@Test
+	void emptyPage() {
+		Page<Team> page = teamTestRepository.searchWithMembers("nobody", PageRequest.of(0, 10));
+
+		assertThat(page.getContent()).isEmpty();
+		assertThat(page.getTotalElements()).isZero();
+	}
+}
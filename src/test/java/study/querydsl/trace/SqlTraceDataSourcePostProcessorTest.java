@@ -0,0 +1,68 @@
+package study.querydsl.trace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+// DB 없이 빈 감싸기만 본다 / 공유 H2 를 쓰는 컨텍스트를 새로 띄우지 않는다
+class SqlTraceDataSourcePostProcessorTest {
+
+	private final ApplicationContextRunner runner = new ApplicationContextRunner()
+			.withUserConfiguration(SqlTraceDataSourcePostProcessor.class);
+
+	@Test
+	void notWrappedWhenDisabled() {
+		runner.withUserConfiguration(SingleDataSource.class)
+				.run(context -> {
+					assertThat(context).doesNotHaveBean(SqlTraceDataSourcePostProcessor.class);
+					assertThat(context.getBean(DataSource.class)).isInstanceOf(DriverManagerDataSource.class);
+				});
+	}
+
+	@Test
+	void wrapsSingleDataSource() {
+		runner.withUserConfiguration(SingleDataSource.class)
+				.withPropertyValues("member.sql-trace.enabled=true")
+				.run(context -> assertThat(context.getBean(DataSource.class)).isInstanceOf(TracingDataSource.class));
+	}
+
+	@Test
+	void wrapsOnlyPrimary() {
+		runner.withUserConfiguration(RoutedDataSources.class)
+				.withPropertyValues("member.sql-trace.enabled=true")
+				.run(context -> {
+					assertThat(context.getBean("router")).isInstanceOf(TracingDataSource.class);
+					assertThat(context.getBean("pool")).isInstanceOf(DriverManagerDataSource.class);
+				});
+	}
+
+	@Configuration
+	static class SingleDataSource {
+
+		@Bean
+		DataSource dataSource() {
+			return new DriverManagerDataSource();
+		}
+	}
+
+	@Configuration
+	static class RoutedDataSources {
+
+		@Bean
+		DataSource pool() {
+			return new DriverManagerDataSource();
+		}
+
+		@Bean
+		@Primary
+		DataSource router() {
+			return new DriverManagerDataSource();
+		}
+	}
+}
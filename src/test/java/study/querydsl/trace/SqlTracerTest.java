@@ -0,0 +1,60 @@
+package study.querydsl.trace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+class SqlTracerTest {
+
+	@Autowired SqlTracer sqlTracer;
+	@Autowired JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void after() {
+		sqlTracer.configure(true, 0.01, Duration.ofMillis(100));
+	}
+
+	@Test
+	void slowStatementIsAlwaysTraced() {
+		sqlTracer.configure(true, 0.0, Duration.ZERO);
+		long traced = sqlTracer.getTraced();
+
+		jdbcTemplate.queryForObject("select count(*) from member where age >= ?", Long.class, 10);
+
+		assertThat(sqlTracer.getTraced()).isEqualTo(traced + 1);
+	}
+
+	@Test
+	void fastStatementIsNotTracedWithoutSampling() {
+		sqlTracer.configure(true, 0.0, Duration.ofHours(1));
+		long traced = sqlTracer.getTraced();
+
+		jdbcTemplate.queryForObject("select count(*) from member where age >= ?", Long.class, 10);
+
+		assertThat(sqlTracer.getTraced()).isEqualTo(traced);
+	}
+
+	@Test
+	void disabledAtRuntime() {
+		sqlTracer.configure(false, 1.0, Duration.ZERO);
+		long traced = sqlTracer.getTraced();
+
+		jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+
+		assertThat(sqlTracer.getTraced()).isEqualTo(traced);
+	}
+
+	@Test
+	void parametersAreFormattedOnlyWhenLogged() {
+		SqlTraceEvent event = new SqlTraceEvent("select *\n  from member where username = ?",
+				new Object[]{"member1"}, 0, 1_500_000, false);
+
+		assertThat(event.toString()).contains("select * from member where username = ?").contains("member1");
+	}
+}